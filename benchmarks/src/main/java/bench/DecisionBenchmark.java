@@ -0,0 +1,64 @@
+package bench;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import base.Card;
+import base.ComputerStrategy;
+import base.Hand;
+import base.RandomStreams;
+import base.Seat;
+import base.Strategy;
+
+/**
+ * Measures a computer strategy deciding how to play a freshly dealt hand, for
+ * each of the four AI profiles.
+ *
+ * @author Vance Zuo
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class DecisionBenchmark {
+
+	private static final int NUM_HANDS = 1024; // power of two
+
+	/** Difficulty bits, see ComputerStrategy */
+	@Param({ "0", "1", "2", "3" })
+	public int level;
+
+	private ComputerStrategy strategy;
+	private Seat seat;
+	private Hand[] hands;
+	private Card[] dealerCards;
+	private int next;
+
+	@Setup
+	public void setUp() {
+		Random random = new Random(42);
+		strategy = new ComputerStrategy(level, RandomStreams.create(42));
+		seat = new Seat("AI", strategy, Integer.MAX_VALUE / 2, 25);
+		hands = new Hand[NUM_HANDS];
+		dealerCards = new Card[NUM_HANDS];
+		for (int i = 0; i < NUM_HANDS; i++) {
+			hands[i] = new Hand(Card.get(random.nextInt(Card.NUM_CARDS)),
+					Card.get(random.nextInt(Card.NUM_CARDS)));
+			dealerCards[i] = Card.get(random.nextInt(Card.NUM_CARDS));
+		}
+	}
+
+	/**
+	 * Asks the strategy how to play a two card hand.
+	 */
+	@Benchmark
+	public int play() {
+		next = (next + 1) & (NUM_HANDS - 1);
+		return strategy.play(seat, hands[next], dealerCards[next],
+				Strategy.ALLOW_DOUBLE | Strategy.ALLOW_SURRENDER);
+	}
+}
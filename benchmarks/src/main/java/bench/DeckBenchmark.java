@@ -0,0 +1,98 @@
+package bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import base.Card;
+import base.Deck;
+import base.RandomStreams;
+
+/**
+ * Measures shuffling and dealing from a full deck shoe, and dealing from an
+ * infinite deck and a continuous shuffler.
+ *
+ * @author Vance Zuo
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class DeckBenchmark {
+
+	/** Cards dealt per shoe, stopping short of the reshuffle point */
+	private static final int CARDS_PER_SHOE = 300;
+
+	/** Cards dealt per round at a full table, dividing CARDS_PER_SHOE */
+	private static final int CARDS_PER_ROUND = 15;
+
+	private Deck deck;
+	private Deck infiniteDeck;
+	private Deck continuousDeck;
+	private Card[] dealt;
+
+	@Setup
+	public void setUp() {
+		deck = new Deck(RandomStreams.create(42));
+		infiniteDeck = Deck.infinite(RandomStreams.create(42));
+		continuousDeck = Deck.continuous(RandomStreams.create(42));
+		dealt = new Card[CARDS_PER_SHOE];
+	}
+
+	/**
+	 * Shuffles the full shoe.
+	 */
+	@Benchmark
+	public void shuffle() {
+		deck.shuffle();
+	}
+
+	/**
+	 * Shuffles, then deals and collects back most of the shoe, the way a
+	 * table goes through it. Reported per card.
+	 */
+	@Benchmark
+	@OperationsPerInvocation(CARDS_PER_SHOE)
+	public void dealShoe(Blackhole bh) {
+		deck.shuffle();
+		for (int i = 0; i < CARDS_PER_SHOE; i++)
+			dealt[i] = deck.draw();
+		for (int i = 0; i < CARDS_PER_SHOE; i++)
+			deck.addToBottom(dealt[i]);
+		bh.consume(deck.getCount());
+	}
+
+	/**
+	 * Deals and returns the same number of cards from an infinite deck.
+	 * Reported per card.
+	 */
+	@Benchmark
+	@OperationsPerInvocation(CARDS_PER_SHOE)
+	public void dealInfinite(Blackhole bh) {
+		for (int i = 0; i < CARDS_PER_SHOE; i++)
+			dealt[i] = infiniteDeck.draw();
+		for (int i = 0; i < CARDS_PER_SHOE; i++)
+			infiniteDeck.addToBottom(dealt[i]);
+		bh.consume(infiniteDeck.getCount());
+	}
+
+	/**
+	 * Deals and returns the same number of cards through a continuous
+	 * shuffler, a round's worth at a time. Reported per card.
+	 */
+	@Benchmark
+	@OperationsPerInvocation(CARDS_PER_SHOE)
+	public void dealContinuous(Blackhole bh) {
+		for (int r = 0; r < CARDS_PER_SHOE; r += CARDS_PER_ROUND) {
+			for (int i = r; i < r + CARDS_PER_ROUND; i++)
+				dealt[i] = continuousDeck.draw();
+			for (int i = r; i < r + CARDS_PER_ROUND; i++)
+				continuousDeck.addToBottom(dealt[i]);
+			continuousDeck.endRound();
+		}
+		bh.consume(continuousDeck.getCount());
+	}
+}
@@ -0,0 +1,65 @@
+package bench;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import base.Card;
+import base.Hand;
+
+/**
+ * Measures valuing hands, both already built and while they are being built.
+ *
+ * @author Vance Zuo
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class HandBenchmark {
+
+	private static final int NUM_HANDS = 1024; // power of two
+
+	private Hand[] hands;
+	private Card[] cards;
+	private int next;
+
+	@Setup
+	public void setUp() {
+		Random random = new Random(42);
+		hands = new Hand[NUM_HANDS];
+		cards = new Card[NUM_HANDS * 3];
+		for (int i = 0; i < cards.length; i++)
+			cards[i] = Card.get(random.nextInt(Card.NUM_CARDS));
+		for (int i = 0; i < NUM_HANDS; i++) {
+			hands[i] = new Hand(cards[3 * i], cards[3 * i + 1]);
+			hands[i].addCard(cards[3 * i + 2]);
+		}
+	}
+
+	/**
+	 * Gets the best value of an existing three card hand.
+	 */
+	@Benchmark
+	public int getBestValue() {
+		next = (next + 1) & (NUM_HANDS - 1);
+		return hands[next].getBestValue();
+	}
+
+	/**
+	 * Builds a three card hand and checks it for a bust after each hit.
+	 */
+	@Benchmark
+	public boolean buildAndValue() {
+		next = (next + 1) & (NUM_HANDS - 1);
+		int i = 3 * next;
+		Hand hand = new Hand(cards[i], cards[i + 1]);
+		if (hand.isBusted())
+			return true;
+		hand.addCard(cards[i + 2]);
+		return hand.isBusted();
+	}
+}
@@ -0,0 +1,57 @@
+package bench;
+
+import java.util.concurrent.TimeUnit;
+import java.util.random.RandomGenerator.SplittableGenerator;
+
+import org.openjdk.jmh.annotations.*;
+
+import base.ComputerStrategy;
+import base.Deck;
+import base.MonteCarloRunner;
+import base.RandomStreams;
+import base.Seat;
+import base.TableEngine;
+
+/**
+ * Measures complete rounds at a table of the four AI profiles, the way the
+ * AI Experiment mode plays them, dealing from a shoe, an infinite deck or a
+ * continuous shuffler.
+ *
+ * @author Vance Zuo
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class RoundBenchmark {
+
+	private static final int MIN_BET = 25;
+	private static final int BANKROLL = Integer.MAX_VALUE / 2;
+
+	@Param({ "shoe", "infinite", "csm" })
+	private String deck;
+
+	private TableEngine table;
+
+	@Setup
+	public void setUp() {
+		SplittableGenerator random = RandomStreams.create(42);
+		int mode = deck.equals("infinite") ? Deck.INFINITE
+				: deck.equals("csm") ? Deck.CONTINUOUS : Deck.SHOE;
+		table = new TableEngine(Deck.create(mode, random.split()), MIN_BET);
+		for (int p = 0; p < MonteCarloRunner.PROFILES.length; p++)
+			table.addSeat(new Seat(MonteCarloRunner.PROFILE_NAMES[p],
+					new ComputerStrategy(MonteCarloRunner.PROFILES[p],
+							random.split()), BANKROLL, MIN_BET));
+	}
+
+	/**
+	 * Plays one full round.
+	 */
+	@Benchmark
+	public void playRound() {
+		table.playRound();
+	}
+}
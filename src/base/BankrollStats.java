@@ -0,0 +1,146 @@
+package base;
+
+/**
+ * Statistics of a bankroll over a run of rounds, kept in constant memory and
+ * updated once per round: the mean and variance of the money won per round
+ * (with Welford's method, so they stay accurate over billions of rounds),
+ * the money wagered, and the largest drawdown from a peak. From these it
+ * estimates N0, the number of rounds after which the expected win equals
+ * one standard deviation, and the risk of ruin of a bankroll.
+ * <p>
+ * Two stats can be merged, as if the rounds of the second had been played
+ * right after those of the first, so parallel runs can be combined exactly.
+ *
+ * @author Vance Zuo
+ */
+public class BankrollStats {
+
+	private long rounds;
+	private long wagered;
+	private long total; // money won over all rounds
+	private double mean;
+	private double m2; // sum of squared differences from the mean
+	private long peak; // highest total so far, starting from 0
+	private long trough; // lowest total so far, starting from 0
+	private long maxDrawdown;
+
+	/**
+	 * Records one round.
+	 * @param net money won (or lost, if negative) in the round
+	 * @param bet money wagered in the round, including doubling down and
+	 *            splits
+	 */
+	public void add(long net, long bet) {
+		rounds++;
+		wagered += bet;
+		double delta = net - mean;
+		mean += delta / rounds;
+		m2 += delta * (net - mean);
+		total += net;
+		if (total > peak)
+			peak = total;
+		else if (peak - total > maxDrawdown)
+			maxDrawdown = peak - total;
+		if (total < trough)
+			trough = total;
+	}
+
+	/**
+	 * Adds the rounds of another run, as if they were played after the
+	 * rounds of this one.
+	 * @param other the stats of the later run
+	 */
+	public void merge(BankrollStats other) {
+		if (other.rounds == 0)
+			return;
+		long n = rounds + other.rounds;
+		double delta = other.mean - mean;
+		mean += delta * other.rounds / n;
+		m2 += other.m2 + delta * delta * rounds / n * other.rounds;
+		// a drawdown may start in this run and end in the other
+		maxDrawdown = Math.max(Math.max(maxDrawdown, other.maxDrawdown),
+				peak - (total + other.trough));
+		peak = Math.max(peak, total + other.peak);
+		trough = Math.min(trough, total + other.trough);
+		total += other.total;
+		wagered += other.wagered;
+		rounds = n;
+	}
+
+	/** @return number of rounds recorded */
+	public long getRounds() { return rounds; }
+
+	/** @return money wagered over all rounds */
+	public long getWagered() { return wagered; }
+
+	/** @return money won over all rounds, or lost if negative */
+	public long getTotal() { return total; }
+
+	/** @return mean money won per round */
+	public double getMean() { return mean; }
+
+	/**
+	 * Gets the sample variance of the money won per round.
+	 * @return the variance, or 0 for fewer than two rounds
+	 */
+	public double getVariance() {
+		return rounds < 2 ? 0 : m2 / (rounds - 1);
+	}
+
+	/** @return standard deviation of the money won per round */
+	public double getStandardDeviation() {
+		return Math.sqrt(getVariance());
+	}
+
+	/** @return standard error of the mean money won per round */
+	public double getStandardError() {
+		return rounds == 0 ? 0 : Math.sqrt(getVariance() / rounds);
+	}
+
+	/** @return money won per money wagered */
+	public double getReturnOnWagered() {
+		return wagered == 0 ? 0 : (double) total / wagered;
+	}
+
+	/** @return largest fall of the total from an earlier peak */
+	public long getMaxDrawdown() { return maxDrawdown; }
+
+	/**
+	 * Gets N0, the number of rounds it takes for the expected win to equal
+	 * one standard deviation of the total: variance / mean squared.
+	 * @return N0, or infinity if the mean is not positive
+	 */
+	public double getN0() {
+		if (mean <= 0)
+			return Double.POSITIVE_INFINITY;
+		return getVariance() / (mean * mean);
+	}
+
+	/**
+	 * Estimates the chance of ever losing a bankroll playing like this,
+	 * forever, using the diffusion approximation exp(-2 mean bankroll /
+	 * variance).
+	 * @param bankroll money to start with
+	 * @return the risk of ruin, 1 if the mean is not positive
+	 */
+	public double getRiskOfRuin(double bankroll) {
+		if (mean <= 0)
+			return 1;
+		double variance = getVariance();
+		if (variance == 0)
+			return 0;
+		return Math.exp(-2 * mean * bankroll / variance);
+	}
+
+	/**
+	 * Gets the bankroll needed to keep the risk of ruin down to a given
+	 * chance, the inverse of getRiskOfRuin.
+	 * @param risk the acceptable risk of ruin, between 0 and 1
+	 * @return the bankroll, or infinity if the mean is not positive
+	 */
+	public double getBankrollFor(double risk) {
+		if (mean <= 0)
+			return Double.POSITIVE_INFINITY;
+		return -Math.log(risk) * getVariance() / (2 * mean);
+	}
+}
@@ -0,0 +1,298 @@
+package base;
+
+/**
+ * A basic strategy table: the best way to play each hand against each dealer
+ * card, worked out for a rule set by generate(). A decision is a single
+ * lookup in a flat array, indexed by the hard total, soft total or pair of the
+ * hand and by the dealer's visible card.
+ * <p>
+ * Each entry holds the best action and a fallback action, which is used when
+ * the best action is not allowed (e.g. doubling after the first two cards).
+ * <p>
+ * The table is generated for an infinite deck, so it does not depend on which
+ * cards have been dealt. Splits are valued without resplitting.
+ *
+ * @author Vance Zuo
+ */
+public class BasicStrategy {
+
+	private static final int ALWAYS_ALLOWED = (1 << Strategy.STAND)
+			| (1 << Strategy.HIT);
+
+	private static final int HARD_ROW = 0; // hard 4 to 21
+	private static final int SOFT_ROW = 18; // soft 12 to 21
+	private static final int PAIR_ROW = 28; // pairs of ace to ten
+	private static final int NUM_ROWS = 38;
+	private static final int NUM_COLUMNS = 10; // dealer ace to ten
+
+	// Probability of drawing each card value from an infinite deck
+	private static final double[] P = new double[11];
+	static {
+		for (int v = 1; v <= 9; v++)
+			P[v] = 1 / 13.0;
+		P[10] = 4 / 13.0;
+	}
+
+	// Indexes into a dealer outcome array
+	private static final int BUST = 5; // after 17 to 21
+	private static final int DEALER_BJ = 6;
+
+	private Rules rules;
+	private byte[] table; // action | fallback << 4
+
+	/**
+	 * Creates a strategy from a generated table.
+	 */
+	private BasicStrategy(Rules tableRules, byte[] actions) {
+		rules = tableRules;
+		table = actions;
+	}
+
+	/**
+	 * Gets the rules this strategy was generated for.
+	 * @return the rules
+	 */
+	public Rules getRules() {
+		return rules;
+	}
+
+	/**
+	 * Gets the best action for a hand.
+	 * @param hand the hand to play, not busted
+	 * @param dealerCard the dealer's visible card
+	 * @param allowed the optional actions that are allowed, a combination of
+	 *                the ALLOW flags in Strategy
+	 * @return STAND, HIT, SURRENDER, DOUBLE or SPLIT from Strategy
+	 */
+	public int getAction(Hand hand, Card dealerCard, int allowed) {
+		int row;
+		if ((allowed & Strategy.ALLOW_SPLIT) != 0 && hand.length() == 2
+				&& hand.get(0).getLowValue() == hand.get(1).getLowValue())
+			row = PAIR_ROW + hand.get(0).getLowValue() - 1;
+		else if (hand.isSoft())
+			row = SOFT_ROW + hand.getBestValue() - 12;
+		else
+			row = HARD_ROW + hand.getBestValue() - 4;
+		int entry = table[row * NUM_COLUMNS + dealerCard.getLowValue() - 1];
+		int action = entry & 0xF;
+		if (((1 << action) & (allowed | ALWAYS_ALLOWED)) == 0)
+			action = entry >> 4;
+		return action;
+	}
+
+	/**
+	 * Works out the basic strategy table for a rule set.
+	 * @param rules the rules to play by
+	 * @return the strategy
+	 */
+	public static BasicStrategy generate(Rules rules) {
+		byte[] table = new byte[NUM_ROWS * NUM_COLUMNS];
+		for (int col = 0; col < NUM_COLUMNS; col++) {
+			Evaluator ev = new Evaluator(rules, col + 1);
+			for (int total = 4; total <= 21; total++)
+				table[(HARD_ROW + total - 4) * NUM_COLUMNS + col] =
+						ev.choose(total, false, 0);
+			for (int total = 12; total <= 21; total++)
+				table[(SOFT_ROW + total - 12) * NUM_COLUMNS + col] =
+						ev.choose(total - 10, true, 0);
+			for (int v = 1; v <= 10; v++)
+				table[(PAIR_ROW + v - 1) * NUM_COLUMNS + col] =
+						ev.choose(2 * v, v == 1, v);
+		}
+		return new BasicStrategy(rules, table);
+	}
+
+	/**
+	 * Works out the expected value of each action against one dealer card.
+	 * All values are per unit of the original bet.
+	 */
+	private static class Evaluator {
+		private Rules rules;
+		private double[] dealer = new double[7];
+		private double[] stand = new double[22]; // by best value
+		private double[] optimal = new double[2 * 32]; // by hard value, ace
+		private boolean[] known = new boolean[2 * 32];
+
+		public Evaluator(Rules tableRules, int upcard) {
+			rules = tableRules;
+			dealerDraw(upcard, upcard == 1, 1, 1.0);
+			// we only play if he has no Blackjack, which the table checks
+			// for under an ace always, and under a ten if he peeks
+			if (upcard == 1 || rules.dealerPeeks()) {
+				double noBJ = 1 - dealer[DEALER_BJ];
+				for (int i = 0; i < dealer.length; i++)
+					dealer[i] /= noBJ;
+				dealer[DEALER_BJ] = 0;
+			}
+			for (int t = 0; t <= 21; t++) {
+				double ev = dealer[BUST] - dealer[DEALER_BJ];
+				for (int d = 17; d <= 21; d++) {
+					if (t > d)
+						ev += dealer[d - 17];
+					else if (t < d)
+						ev -= dealer[d - 17];
+				}
+				stand[t] = ev;
+			}
+		}
+
+		/**
+		 * Adds up the dealer's final totals, drawing until he stands.
+		 */
+		private void dealerDraw(int hard, boolean ace, int cards,
+				double prob) {
+			boolean soft = ace && hard + 10 <= 21;
+			int best = soft ? hard + 10 : hard;
+			if (cards == 2 && best == 21)
+				dealer[DEALER_BJ] += prob;
+			else if (best > 21)
+				dealer[BUST] += prob;
+			else if (best > 17 || best == 17
+					&& !(soft && rules.dealerHitsSoft17()))
+				dealer[best - 17] += prob;
+			else {
+				for (int v = 1; v <= 10; v++)
+					dealerDraw(hard + v, ace || v == 1, cards + 1, prob * P[v]);
+			}
+		}
+
+		private static int best(int hard, boolean ace) {
+			return ace && hard + 10 <= 21 ? hard + 10 : hard;
+		}
+
+		private double stand(int hard, boolean ace) {
+			int best = best(hard, ace);
+			return best > 21 ? -1 : stand[best];
+		}
+
+		private double hit(int hard, boolean ace) {
+			double ev = 0;
+			for (int v = 1; v <= 10; v++)
+				ev += P[v] * optimal(hard + v, ace || v == 1);
+			return ev;
+		}
+
+		/**
+		 * Expected value of hitting or standing, whichever is better.
+		 */
+		private double optimal(int hard, boolean ace) {
+			if (best(hard, ace) > 21)
+				return -1;
+			int i = 2 * hard + (ace ? 1 : 0);
+			if (!known[i]) {
+				optimal[i] = Math.max(stand(hard, ace), hit(hard, ace));
+				known[i] = true;
+			}
+			return optimal[i];
+		}
+
+		private double doubleDown(int hard, boolean ace) {
+			double ev = 0;
+			for (int v = 1; v <= 10; v++)
+				ev += P[v] * stand(hard + v, ace || v == 1);
+			return 2 * ev;
+		}
+
+		private double split(int pair) {
+			double ev = 0;
+			for (int v = 1; v <= 10; v++) {
+				int hard = pair + v;
+				boolean ace = pair == 1 || v == 1;
+				double hand;
+				if (pair == 1 && !rules.hitSplitAces()) // one card each
+					hand = stand(hard, ace);
+				else {
+					hand = optimal(hard, ace);
+					if (rules.doubleAfterSplit())
+						hand = Math.max(hand, doubleDown(hard, ace));
+				}
+				ev += P[v] * hand;
+			}
+			return 2 * ev;
+		}
+
+		/**
+		 * Picks the best action and fallback for a two card hand.
+		 * @param pair the value of the pair, or 0 if not a pair row
+		 * @return table entry
+		 */
+		public byte choose(int hard, boolean ace, int pair) {
+			double[] ev = new double[5];
+			ev[Strategy.STAND] = stand(hard, ace);
+			ev[Strategy.HIT] = hit(hard, ace);
+			ev[Strategy.DOUBLE] = doubleDown(hard, ace);
+			ev[Strategy.SURRENDER] = rules.surrender() ? -0.5
+					: Double.NEGATIVE_INFINITY;
+			ev[Strategy.SPLIT] = pair > 0 ? split(pair)
+					: Double.NEGATIVE_INFINITY;
+
+			int action = Strategy.STAND;
+			int[] order = { Strategy.HIT, Strategy.DOUBLE, Strategy.SPLIT,
+					Strategy.SURRENDER };
+			for (int a : order) {
+				if (ev[a] > ev[action])
+					action = a;
+			}
+			int fallback = ev[Strategy.HIT] > ev[Strategy.STAND]
+					? Strategy.HIT : Strategy.STAND;
+			if (action != Strategy.SPLIT && ev[Strategy.SPLIT] > ev[fallback])
+				fallback = Strategy.SPLIT;
+			return (byte) (action | fallback << 4);
+		}
+	}
+
+	/**
+	 * Prints the table as a chart, one row per hand and one column per dealer
+	 * card from 2 to ace.
+	 */
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		sb.append(rules).append('\n');
+		sb.append("     2  3  4  5  6  7  8  9  T  A\n");
+		for (int row = 0; row < NUM_ROWS; row++) {
+			String label;
+			if (row < SOFT_ROW)
+				label = "H" + (row - HARD_ROW + 4);
+			else if (row < PAIR_ROW)
+				label = "S" + (row - SOFT_ROW + 12);
+			else
+				label = "P" + "A23456789T".charAt(row - PAIR_ROW);
+			sb.append(String.format("%-4s", label));
+			for (int i = 1; i <= NUM_COLUMNS; i++) {
+				int col = i % NUM_COLUMNS; // ace last
+				int entry = table[row * NUM_COLUMNS + col];
+				sb.append(' ').append(code(entry & 0xF, entry >> 4));
+			}
+			sb.append('\n');
+		}
+		return sb.toString();
+	}
+
+	private static String code(int action, int fallback) {
+		String f = fallback == Strategy.STAND ? "s"
+				: fallback == Strategy.HIT ? "h" : "p";
+		switch (action) {
+		case Strategy.STAND:
+			return "S ";
+		case Strategy.HIT:
+			return "H ";
+		case Strategy.DOUBLE:
+			return "D" + f;
+		case Strategy.SPLIT:
+			return "P ";
+		default:
+			return "R" + f;
+		}
+	}
+
+	/**
+	 * Prints the basic strategy charts of a few common rule sets.
+	 * @param args not used
+	 */
+	public static void main(String[] args) {
+		System.out.println(generate(Rules.DEFAULT));
+		System.out.println(generate(Rules.DEFAULT.withDealerPeeks(true)
+				.withDealerHitsSoft17(true)));
+	}
+}
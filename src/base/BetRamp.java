@@ -0,0 +1,147 @@
+package base;
+
+/**
+ * How a card counter sizes bets by the Hi-Lo true count. The bet is a number
+ * of units (minimum bets): slope units for every point of true count above
+ * the pivot, at least 1 and at most spread. At a true count of wongOut or
+ * less the counter sits the round out ("wonging out"), as a back-counter
+ * waits for the count to rise again.
+ * <p>
+ * Ramps are immutable; the with methods return a copy with one parameter
+ * changed. DEFAULT is the ramp the hard betting AI has always used.
+ *
+ * @author Vance Zuo
+ */
+public final class BetRamp {
+
+	/** Wong-out count of a ramp that never sits out */
+	public static final int NEVER = Integer.MIN_VALUE;
+
+	/** 2 units per true count above 0, up to 12 units, never sitting out */
+	public static final BetRamp DEFAULT = new BetRamp(12, 2, 0, NEVER);
+
+	private final int spread;
+	private final int slope;
+	private final int pivot;
+	private final int wongOut;
+
+	/**
+	 * Creates a ramp. Use DEFAULT and the with methods instead.
+	 */
+	private BetRamp(int maxUnits, int unitsPerCount, int startCount,
+			int sitOutCount) {
+		spread = maxUnits;
+		slope = unitsPerCount;
+		pivot = startCount;
+		wongOut = sitOutCount;
+	}
+
+	/**
+	 * Gets the largest bet, in units
+	 * @return the bet spread
+	 */
+	public int spread() {
+		return spread;
+	}
+
+	/**
+	 * Gets how fast the bet rises with the true count
+	 * @return units per point of true count
+	 */
+	public int slope() {
+		return slope;
+	}
+
+	/**
+	 * Gets the true count the ramp starts rising from
+	 * @return the pivot count
+	 */
+	public int pivot() {
+		return pivot;
+	}
+
+	/**
+	 * Gets the true count at or below which the counter sits out
+	 * @return the wong-out count, or NEVER
+	 */
+	public int wongOut() {
+		return wongOut;
+	}
+
+	/**
+	 * Works out a bet.
+	 * @param minBet the table's minimum bet, one unit
+	 * @param money the money the counter has
+	 * @param trueCount the Hi-Lo true count
+	 * @return the bet, or 0 to sit out
+	 */
+	public int bet(int minBet, int money, int trueCount) {
+		if (trueCount <= wongOut)
+			return 0;
+		long bet = (long) minBet * slope * (trueCount - pivot);
+		int max = Math.min(money, minBet * spread);
+		if (bet > max)
+			bet = max;
+		if (bet < minBet)
+			bet = minBet;
+		return (int) bet;
+	}
+
+	/**
+	 * @param maxUnits the largest bet in units, at least 1
+	 * @return a copy of this ramp with that parameter changed
+	 */
+	public BetRamp withSpread(int maxUnits) {
+		if (maxUnits < 1)
+			throw new IllegalArgumentException("maxUnits must be positive");
+		return new BetRamp(maxUnits, slope, pivot, wongOut);
+	}
+
+	/**
+	 * @param unitsPerCount units bet per point of true count, at least 0
+	 * @return a copy of this ramp with that parameter changed
+	 */
+	public BetRamp withSlope(int unitsPerCount) {
+		if (unitsPerCount < 0)
+			throw new IllegalArgumentException(
+					"unitsPerCount must not be negative");
+		return new BetRamp(spread, unitsPerCount, pivot, wongOut);
+	}
+
+	/**
+	 * @param startCount the true count the ramp starts rising from
+	 * @return a copy of this ramp with that parameter changed
+	 */
+	public BetRamp withPivot(int startCount) {
+		return new BetRamp(spread, slope, startCount, wongOut);
+	}
+
+	/**
+	 * @param sitOutCount the true count at or below which to sit out, or
+	 *                    NEVER
+	 * @return a copy of this ramp with that parameter changed
+	 */
+	public BetRamp withWongOut(int sitOutCount) {
+		return new BetRamp(spread, slope, pivot, sitOutCount);
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (!(o instanceof BetRamp))
+			return false;
+		BetRamp r = (BetRamp) o;
+		return spread == r.spread && slope == r.slope && pivot == r.pivot
+				&& wongOut == r.wongOut;
+	}
+
+	@Override
+	public int hashCode() {
+		return ((spread * 31 + slope) * 31 + pivot) * 31 + wongOut;
+	}
+
+	@Override
+	public String toString() {
+		return "1-" + spread + " x" + slope + " from TC" + pivot
+				+ (wongOut == NEVER ? "" : " out TC" + wongOut);
+	}
+}
@@ -0,0 +1,413 @@
+package base;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.random.RandomGenerator.SplittableGenerator;
+
+/**
+ * Searches for the best BetRamp for the card-counting, basic strategy AI
+ * (HARD_BET | HARD_PLAY), by simulation on a pool of worker threads.
+ * <p>
+ * Candidates are compared on common random numbers: the rounds are played in
+ * blocks, and every candidate plays block b with the same generator, so with
+ * the same shoes as the others, as long as it does not sit out rounds they
+ * play. The differences between candidates are then far less noisy than their
+ * results, and a short run is enough to tell a poor ramp from a good one.
+ * <p>
+ * The search is by successive halving: every candidate plays a first stage of
+ * rounds, the better half is kept and plays as many rounds again, and so on,
+ * until one candidate is left or the candidates have played the most rounds
+ * allowed. Most of the rounds thus go to the candidates worth comparing
+ * closely.
+ * <p>
+ * Ramps are ranked either by their desirability index (1000 EV / SD per
+ * round played, not counting rounds sat out), which ranks them the same as
+ * the win rate they give when the unit is sized to a bankroll for a fixed
+ * risk of ruin, or, with a fixed unit, by their EV among those whose risk of
+ * ruin of a given bankroll is within a given risk.
+ * <p>
+ * Usage: java base.BetRampOptimizer [first stage rounds] [max rounds]
+ * [threads] [seed] [score|bankroll:risk] [shoe|infinite|csm] [rules]
+ *
+ * @author Vance Zuo
+ */
+public class BetRampOptimizer {
+
+	/** Objective: the highest desirability index */
+	public static final int SCORE = 0;
+	/** Objective: the highest EV within a risk of ruin of a bankroll */
+	public static final int RISK_OF_RUIN = 1;
+
+	private static final int PROFILE =
+			ComputerStrategy.HARD_BET | ComputerStrategy.HARD_PLAY;
+
+	// Large enough that the AI never bets "on credit" and shrinks its bets
+	private static final int MONEY = Integer.MAX_VALUE / 2;
+
+	private int minBet;
+	private int numThreads;
+	private Rules rules = Rules.DEFAULT;
+	private int deckMode = Deck.SHOE;
+	private int objective = SCORE;
+	private double bankroll;
+	private double risk;
+	private boolean seeded;
+	private long seed;
+	private PrintStream progress;
+	private ArrayList<Candidate> candidates = new ArrayList<Candidate>();
+
+	/**
+	 * Creates an optimizer.
+	 * @param minimumBet minimum bet of the simulated tables, one unit
+	 * @param threads number of worker threads
+	 */
+	public BetRampOptimizer(int minimumBet, int threads) {
+		if (threads < 1)
+			throw new IllegalArgumentException("threads must be positive");
+		minBet = minimumBet;
+		numThreads = threads;
+	}
+
+	/**
+	 * Sets the rules the tables play by.
+	 * @param tableRules the rules, Rules.DEFAULT by default
+	 */
+	public void setRules(Rules tableRules) {
+		rules = tableRules;
+	}
+
+	/**
+	 * Sets the kind of deck the tables deal from.
+	 * @param mode Deck.SHOE (the default), Deck.INFINITE or Deck.CONTINUOUS
+	 */
+	public void setDeckMode(int mode) {
+		deckMode = mode;
+	}
+
+	/**
+	 * Ranks ramps by their desirability index, the default.
+	 */
+	public void setScoreObjective() {
+		objective = SCORE;
+	}
+
+	/**
+	 * Ranks ramps by their EV, among those that risk losing a bankroll with
+	 * at most a given chance. Ramps with a greater risk rank below, by risk.
+	 * @param money the bankroll
+	 * @param maxRisk the acceptable risk of ruin, between 0 and 1
+	 */
+	public void setRiskOfRuinObjective(double money, double maxRisk) {
+		if (!(maxRisk > 0 && maxRisk < 1))
+			throw new IllegalArgumentException("maxRisk must be in (0, 1)");
+		objective = RISK_OF_RUIN;
+		bankroll = money;
+		risk = maxRisk;
+	}
+
+	/**
+	 * Makes the search reproducible, by deriving all random numbers from a
+	 * seed. The result does not depend on the number of threads.
+	 * @param rootSeed the seed
+	 */
+	public void setSeed(long rootSeed) {
+		seeded = true;
+		seed = rootSeed;
+	}
+
+	/**
+	 * Makes the search print a line after every stage.
+	 * @param out where to print, or null to print nothing
+	 */
+	public void setProgress(PrintStream out) {
+		progress = out;
+	}
+
+	/**
+	 * Makes every combination of the given ramp parameters.
+	 * @param spreads largest bets, in units
+	 * @param slopes units per point of true count
+	 * @param pivots true counts the ramp starts rising from
+	 * @param wongOuts true counts to sit out at, or BetRamp.NEVER
+	 * @return the ramps
+	 */
+	public static ArrayList<BetRamp> grid(int[] spreads, int[] slopes,
+			int[] pivots, int[] wongOuts) {
+		ArrayList<BetRamp> ramps = new ArrayList<BetRamp>();
+		for (int spread : spreads) {
+			for (int slope : slopes) {
+				for (int pivot : pivots) {
+					for (int wongOut : wongOuts)
+						ramps.add(BetRamp.DEFAULT.withSpread(spread)
+								.withSlope(slope).withPivot(pivot)
+								.withWongOut(wongOut));
+				}
+			}
+		}
+		return ramps;
+	}
+
+	/**
+	 * Searches for the best of a number of ramps.
+	 * @param ramps the candidates
+	 * @param firstRounds rounds every candidate plays in the first stage, and
+	 *                    the size of a block of rounds
+	 * @param maxRounds most rounds a candidate plays in all
+	 * @return the candidates of the last stage, best first; the results of
+	 *         the others can be found with getCandidates
+	 * @throws InterruptedException if interrupted while waiting for workers
+	 */
+	public List<Candidate> optimize(List<BetRamp> ramps, long firstRounds,
+			long maxRounds) throws InterruptedException {
+		if (ramps.isEmpty() || firstRounds < 1 || maxRounds < firstRounds)
+			throw new IllegalArgumentException("Nothing to search");
+		candidates = new ArrayList<Candidate>();
+		for (BetRamp ramp : ramps)
+			candidates.add(new Candidate(ramp));
+		SplittableGenerator root = seeded ? RandomStreams.create(seed)
+				: RandomStreams.create();
+		ArrayList<Long> blockSeeds = new ArrayList<Long>();
+		ExecutorService pool = Executors.newFixedThreadPool(numThreads);
+		List<Candidate> alive = new ArrayList<Candidate>(candidates);
+		int blocks = 0; // blocks played by every candidate alive
+		int stage = 1;
+		try {
+			while (true) {
+				int target = (int) Math.min(maxRounds / firstRounds,
+						1L << (stage - 1));
+				while (blockSeeds.size() < target)
+					blockSeeds.add(root.nextLong());
+				play(pool, alive, blocks, target, firstRounds, blockSeeds);
+				blocks = target;
+				Collections.sort(alive, ranking());
+				if (progress != null)
+					progress.printf("Stage %d: %d ramps x %d rounds, best %s "
+							+ "(%s)%n", stage, alive.size(), blocks
+							* firstRounds, alive.get(0).getRamp(),
+							describe(alive.get(0)));
+				if (alive.size() == 1 || blocks * 2 > maxRounds / firstRounds)
+					return alive;
+				alive = new ArrayList<Candidate>(
+						alive.subList(0, (alive.size() + 1) / 2));
+				stage++;
+			}
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	/**
+	 * Gets every candidate of the last search, in the order of the ramps,
+	 * with the results of the rounds each played before it was dropped.
+	 * @return the candidates
+	 */
+	public List<Candidate> getCandidates() {
+		return candidates;
+	}
+
+	/**
+	 * Plays blocks from, up to but not including, to for every candidate, and
+	 * adds them to the candidates' results in block order.
+	 */
+	private void play(ExecutorService pool, List<Candidate> alive, int from,
+			int to, long blockRounds, List<Long> blockSeeds)
+			throws InterruptedException {
+		ArrayList<Future<BankrollStats>> futures =
+				new ArrayList<Future<BankrollStats>>();
+		for (Candidate c : alive) {
+			for (int b = from; b < to; b++)
+				futures.add(pool.submit(new Block(c.getRamp(), blockRounds,
+						blockSeeds.get(b))));
+		}
+		try {
+			int f = 0;
+			for (Candidate c : alive) {
+				for (int b = from; b < to; b++)
+					c.stats.merge(futures.get(f++).get());
+			}
+		} catch (ExecutionException e) {
+			throw new RuntimeException("Simulation worker failed", e.getCause());
+		}
+	}
+
+	/**
+	 * Gets the order candidates are ranked in, best first.
+	 */
+	private Comparator<Candidate> ranking() {
+		if (objective == SCORE) {
+			return new Comparator<Candidate>() {
+				@Override
+				public int compare(Candidate a, Candidate b) {
+					return Double.compare(b.getDesirabilityIndex(),
+							a.getDesirabilityIndex());
+				}
+			};
+		}
+		return new Comparator<Candidate>() {
+			@Override
+			public int compare(Candidate a, Candidate b) {
+				double riskA = a.stats.getRiskOfRuin(bankroll);
+				double riskB = b.stats.getRiskOfRuin(bankroll);
+				if (riskA <= risk && riskB <= risk)
+					return Double.compare(b.stats.getMean(), a.stats.getMean());
+				if (riskA <= risk)
+					return -1;
+				if (riskB <= risk)
+					return 1;
+				return Double.compare(riskA, riskB);
+			}
+		};
+	}
+
+	/**
+	 * Describes the objective of a candidate.
+	 */
+	private String describe(Candidate c) {
+		if (objective == SCORE)
+			return String.format("DI %.2f", c.getDesirabilityIndex());
+		return String.format("EV %.4f, RoR %.2f%%", c.stats.getMean(),
+				100 * c.stats.getRiskOfRuin(bankroll));
+	}
+
+	/**
+	 * Plays one block of rounds with one ramp, alone at a fresh table.
+	 */
+	private class Block implements Callable<BankrollStats> {
+		private BetRamp ramp;
+		private long rounds;
+		private long blockSeed;
+
+		public Block(BetRamp blockRamp, long numRounds, long seedOfBlock) {
+			ramp = blockRamp;
+			rounds = numRounds;
+			blockSeed = seedOfBlock;
+		}
+
+		@Override
+		public BankrollStats call() {
+			SplittableGenerator random = RandomStreams.create(blockSeed);
+			TableEngine table = new TableEngine(Deck.create(deckMode,
+					rules.decks(), random.split()), minBet, rules);
+			Seat seat = new Seat("Counter", new ComputerStrategy(PROFILE,
+					random.split(), rules, ramp), MONEY, minBet);
+			table.addSeat(seat);
+			for (long r = 0; r < rounds; r++)
+				table.playRound();
+			return seat.getStats();
+		}
+	}
+
+	/**
+	 * A ramp searched, with the results of the rounds it has played.
+	 */
+	public static class Candidate {
+		private BetRamp ramp;
+		private BankrollStats stats = new BankrollStats();
+
+		private Candidate(BetRamp candidateRamp) {
+			ramp = candidateRamp;
+		}
+
+		/** @return the ramp */
+		public BetRamp getRamp() { return ramp; }
+
+		/** @return the results of the rounds played with the ramp */
+		public BankrollStats getStats() { return stats; }
+
+		/**
+		 * Gets the desirability index, 1000 times the EV over the standard
+		 * deviation of a round, which does not depend on the size of a unit.
+		 * @return the index, or 0 before two rounds have been played
+		 */
+		public double getDesirabilityIndex() {
+			double sd = stats.getStandardDeviation();
+			return sd == 0 ? 0 : 1000 * stats.getMean() / sd;
+		}
+	}
+
+	/**
+	 * Searches a grid of ramps and prints the best.
+	 * @param args rounds per candidate in the first stage (default 20000),
+	 *             most rounds per candidate (default 10000000), threads
+	 *             (default one per core), seed (default random, "-" for
+	 *             random), the objective, "score" (default) or a bankroll
+	 *             and risk of ruin such as "10000:0.05", the deck to deal
+	 *             from, "shoe" (default), "infinite" or "csm", and the rules
+	 *             as changes to the default, see MonteCarloRunner
+	 */
+	public static void main(String[] args) throws InterruptedException {
+		long firstRounds = 20000;
+		long maxRounds = 10000000;
+		int threads = Runtime.getRuntime().availableProcessors();
+		if (args.length > 0)
+			firstRounds = Long.parseLong(args[0]);
+		if (args.length > 1)
+			maxRounds = Long.parseLong(args[1]);
+		if (args.length > 2)
+			threads = Integer.parseInt(args[2]);
+
+		BetRampOptimizer optimizer = new BetRampOptimizer(25, threads);
+		if (args.length > 3 && !args[3].equals("-"))
+			optimizer.setSeed(Long.parseLong(args[3]));
+		if (args.length > 4 && !args[4].equals("score")) {
+			int colon = args[4].indexOf(':');
+			if (colon < 0)
+				throw new IllegalArgumentException("Unknown objective "
+						+ args[4]);
+			optimizer.setRiskOfRuinObjective(
+					Double.parseDouble(args[4].substring(0, colon)),
+					Double.parseDouble(args[4].substring(colon + 1)));
+		}
+		if (args.length > 5) {
+			if (args[5].equals("infinite"))
+				optimizer.setDeckMode(Deck.INFINITE);
+			else if (args[5].equals("csm"))
+				optimizer.setDeckMode(Deck.CONTINUOUS);
+			else if (!args[5].equals("shoe"))
+				throw new IllegalArgumentException("Unknown deck " + args[5]);
+		}
+		if (args.length > 6)
+			optimizer.setRules(MonteCarloRunner.parseRules(args[6]));
+		optimizer.setProgress(System.out);
+
+		ArrayList<BetRamp> ramps = grid(new int[] { 4, 8, 12, 16, 24 },
+				new int[] { 1, 2, 3, 4 }, new int[] { 0, 1 },
+				new int[] { BetRamp.NEVER, -1, 0 });
+		System.out.printf("Rules: %s, %d ramps on %d threads%n",
+				optimizer.rules, ramps.size(), threads);
+		long start = System.nanoTime();
+		List<Candidate> best = optimizer.optimize(ramps, firstRounds,
+				maxRounds);
+		System.out.printf("Searched in %.2f s%n",
+				(System.nanoTime() - start) / 1e9);
+
+		boolean ror = optimizer.objective == RISK_OF_RUIN;
+		System.out.printf("%-24s %10s %10s %9s %7s %12s %14s%s%n", "Ramp",
+				"EV/round", "+/- SE", "EV/wager", "DI", "N0 rounds",
+				"Bankroll@5%RoR", ror ? String.format(" %9s", "RoR") : "");
+		ArrayList<Candidate> shown = new ArrayList<Candidate>(best);
+		for (Candidate c : optimizer.getCandidates()) {
+			if (c.getRamp().equals(BetRamp.DEFAULT) && !shown.contains(c))
+				shown.add(c); // for comparison
+		}
+		for (Candidate c : shown) {
+			BankrollStats s = c.getStats();
+			System.out.printf("%-24s %10.4f %10.4f %8.3f%% %7.2f %12.0f %14.0f"
+					+ "%s%n", c.getRamp(), s.getMean(), s.getStandardError(),
+					100 * s.getReturnOnWagered(), c.getDesirabilityIndex(),
+					s.getN0(), s.getBankrollFor(0.05), ror
+							? String.format(" %8.2f%%",
+									100 * s.getRiskOfRuin(optimizer.bankroll))
+							: "");
+		}
+		System.out.println("Best: " + best.get(0).getRamp());
+	}
+}
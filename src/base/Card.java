@@ -5,10 +5,14 @@
 package base;
 
 /**
- * A class that can be used to create poker cards in a standard 52 card French
- * deck. Cards can be one of 13 faces, one of four suits, and one of two colors.
- * Methods will get the names, faces, values, suits, or colors of the cards and
- * can flip the card face up or face down
+ * A class that represents poker cards in a standard 52 card French deck.
+ * Cards can be one of 13 faces, one of four suits, and one of two colors.
+ * Methods will get the names, faces, values, suits, or colors of the cards.
+ * <p>
+ * Cards are immutable, and there is exactly one instance of each of the 52
+ * cards, obtained with get(suit, face). Decks and hands on any number of
+ * tables (and threads) share the same instances. Whether a card is face up is
+ * kept by the Hand holding it.
  * 
  * @author Brian Wang
  */
@@ -92,40 +96,76 @@ public class Card {
 	 */
 	public static final int SPADES = 3;
 
-	private int suit;
+	/**
+	 * The number of distinct cards
+	 */
+	public static final int NUM_CARDS = 52;
+
+	private static final int[] VALUES = { -1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 10,
+			10, 10 };
+	private static final String[] FACE_NAMES = { "Ace", "Two", "Three",
+			"Four", "Five", "Six", "Seven", "Eight", "Nine", "Ten", "Jack",
+			"Queen", "King" };
+	private static final String[] SUIT_NAMES = { "Diamonds", "Clubs",
+			"Hearts", "Spades" };
+	private static final Card[] CARDS = new Card[NUM_CARDS];
+	static {
+		for (int i = 0; i < NUM_CARDS; i++)
+			CARDS[i] = new Card(i / 13, i % 13);
+	}
+
+	private final int suit;
 	// Will contain a value from 0 to 3. Will represent the suits of cards from
 	// smallest suit to largest (diamond, club, heart, spades)
-	private int face; // Will contain a value from 0 to 12, from Ace to King
-	private boolean isFaceUp; // Tells whether the card is face up or face down
+	private final int face; // Will contain a value from 0 to 12, from Ace to King
+	private final int value; // Value of the card, -1 for an Ace
 
 	/**
-	 * Create a card with suit cSuit, face cFace, and facing direction faceDir
+	 * Create a card with suit cSuit, face cFace. Only used to fill in the 52
+	 * shared instances.
 	 * 
 	 * @param cSuit
 	 *            Suit of the Card
 	 * @param cFace
 	 *            Face of the Card
-	 * @param faceDir
-	 *            Face up (true) or Face down (false)
 	 */
-	public Card(int cSuit, int cFace, boolean faceDir) {
+	private Card(int cSuit, int cFace) {
 		suit = cSuit;
 		face = cFace;
-		isFaceUp = faceDir;
+		value = VALUES[cFace];
 	}
 
 	/**
-	 * Create a card with suit cSuit, face cFace
+	 * Gets the card with suit cSuit and face cFace
 	 * 
 	 * @param cSuit
 	 *            Suit of the Card
 	 * @param cFace
 	 *            Face of the Card
+	 * @return the shared instance of that card
 	 */
-	public Card(int cSuit, int cFace) {
-		suit = cSuit;
-		face = cFace;
-		isFaceUp = true;
+	public static Card get(int cSuit, int cFace) {
+		return CARDS[cSuit * 13 + cFace];
+	}
+
+	/**
+	 * Gets the card with the given index, as returned by getIndex()
+	 * 
+	 * @param index
+	 *            Index of the card, from 0 to 51
+	 * @return the shared instance of that card
+	 */
+	public static Card get(int index) {
+		return CARDS[index];
+	}
+
+	/**
+	 * Gets a number from 0 to 51 that identifies the card
+	 * 
+	 * @return index of the card
+	 */
+	public int getIndex() {
+		return suit * 13 + face;
 	}
 
 	/**
@@ -165,11 +205,7 @@ public class Card {
 	 * @return value of the card
 	 */
 	public int getValue() {
-		if (face >= DEUCE && face <= TEN)
-			return face + 1;
-		else if (face > TEN)
-			return 10;
-		return -1;
+		return value;
 	}
 
 	/**
@@ -200,40 +236,13 @@ public class Card {
 		}
 	}
 
-	/**
-	 * Flips the card orientation
-	 */
-	public void flip() {
-		isFaceUp = !isFaceUp;
-	}
-
-	/**
-	 * Tells whether the cards is face up
-	 * 
-	 * @return boolean representing whether the card is face up or down
-	 */
-	public boolean isFaceUp() {
-		return isFaceUp;
-	}
-
 	/**
 	 * Gets the suit name in a string
 	 * 
 	 * @return String with the suit of the card
 	 */
 	public String getSuitName() {
-		switch (suit) {
-		case DIAMONDS:
-			return "Diamonds";
-		case CLUBS:
-			return "Clubs";
-		case HEARTS:
-			return "Hearts";
-		case SPADES:
-			return "Spades";
-		default:
-			return "Error: No Case";
-		}
+		return SUIT_NAMES[suit];
 	}
 
 	/**
@@ -242,35 +251,11 @@ public class Card {
 	 * @return String with the face of the card
 	 */
 	public String getFaceName() {
-		switch (face) {
-		case ACE:
-			return "Ace";
-		case TWO:
-			return "Two";
-		case THREE:
-			return "Three";
-		case FOUR:
-			return "Four";
-		case FIVE:
-			return "Five";
-		case SIX:
-			return "Six";
-		case SEVEN:
-			return "Seven";
-		case EIGHT:
-			return "Eight";
-		case NINE:
-			return "Nine";
-		case TEN:
-			return "Ten";
-		case JACK:
-			return "Jack";
-		case QUEEN:
-			return "Queen";
-		case KING:
-			return "King";
-		default:
-			return "Error: No Face";
-		}
+		return FACE_NAMES[face];
+	}
+
+	@Override
+	public String toString() {
+		return getFaceName() + " of " + getSuitName();
 	}
 }
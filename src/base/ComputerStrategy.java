@@ -0,0 +1,179 @@
+package base;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.random.RandomGenerator;
+
+/**
+ * A computer controlled strategy. There are two AI modes, EASY and HARD, for
+ * both betting and hand playing behavior, which can be combined with a
+ * bitwise or (e.g. HARD_BET | EASY_PLAY).
+ * <p>
+ * Easy betting raises bets after wins and drops them after losses, while hard
+ * betting follows the Hi-Lo true count along a BetRamp. Easy play hits based
+ * on its own risk of busting, while hard play follows a BasicStrategy table
+ * generated for the table's rules, which takes soft totals and the dealer's
+ * visible card into account. The random choices of the easy modes come from
+ * the strategy's own generator.
+ *
+ * @author Vance Zuo
+ */
+public class ComputerStrategy implements Strategy {
+
+	/** Constant representing AI easy difficulty */
+	public static final int EASY_BET = 0; // 00
+	public static final int EASY_PLAY = 0; // 00
+	/** Constant representing AI hard difficulty */
+	public static final int HARD_BET = 1; // 01
+	public static final int HARD_PLAY = 2; // 10
+
+	// Basic strategy tables by rules, shared by all strategies
+	private static final ConcurrentHashMap<Rules, BasicStrategy> STRATEGIES =
+			new ConcurrentHashMap<Rules, BasicStrategy>();
+
+	private int level;
+	private int previousBet;
+	private RandomGenerator random;
+	private BasicStrategy basic;
+	private BetRamp ramp;
+
+	/**
+	 * Creates a computer strategy with an unseeded random number generator.
+	 * @param difficulty betting and playing modes, e.g. HARD_BET | EASY_PLAY
+	 */
+	public ComputerStrategy(int difficulty) {
+		this(difficulty, RandomStreams.create());
+	}
+
+	/**
+	 * Creates a computer strategy.
+	 * @param difficulty betting and playing modes, e.g. HARD_BET | EASY_PLAY
+	 * @param decisionRandom generator for the easy modes' random choices,
+	 *                       not shared with other users
+	 */
+	public ComputerStrategy(int difficulty, RandomGenerator decisionRandom) {
+		this(difficulty, decisionRandom, Rules.DEFAULT);
+	}
+
+	/**
+	 * Creates a computer strategy for a table with the given rules.
+	 * @param difficulty betting and playing modes, e.g. HARD_BET | EASY_PLAY
+	 * @param decisionRandom generator for the easy modes' random choices,
+	 *                       not shared with other users
+	 * @param rules the rules of the table, which hard play follows
+	 */
+	public ComputerStrategy(int difficulty, RandomGenerator decisionRandom,
+			Rules rules) {
+		this(difficulty, decisionRandom, rules, BetRamp.DEFAULT);
+	}
+
+	/**
+	 * Creates a computer strategy for a table with the given rules, which
+	 * bets along the given ramp in the hard betting mode.
+	 * @param difficulty betting and playing modes, e.g. HARD_BET | EASY_PLAY
+	 * @param decisionRandom generator for the easy modes' random choices,
+	 *                       not shared with other users
+	 * @param rules the rules of the table, which hard play follows
+	 * @param betRamp the bets of hard betting by true count
+	 */
+	public ComputerStrategy(int difficulty, RandomGenerator decisionRandom,
+			Rules rules, BetRamp betRamp) {
+		level = difficulty;
+		ramp = betRamp;
+		previousBet = 0;
+		random = decisionRandom;
+		basic = STRATEGIES.get(rules);
+		if (basic == null) {
+			basic = BasicStrategy.generate(rules);
+			STRATEGIES.putIfAbsent(rules, basic);
+		}
+	}
+
+	/**
+	 * Gets the bet ramp of the hard betting mode.
+	 * @return the ramp
+	 */
+	public BetRamp getBetRamp() {
+		return ramp;
+	}
+
+	/**
+	 * Gets the betting and playing modes of this strategy.
+	 * @return the difficulty bits
+	 */
+	public int getLevel() {
+		return level;
+	}
+
+	@Override
+	public boolean isHuman() {
+		return false;
+	}
+
+	@Override
+	public int bet(Seat seat, Deck deck) {
+		int minBet = seat.getMinBet();
+		int money = seat.getMoney();
+		int normalBet = previousBet;
+
+		if ((level & HARD_BET) != 0) { // Hard AI betting
+			previousBet = ramp.bet(minBet, money, deck.getCount());
+			return previousBet;
+		}
+		// Easy AI betting
+		if (seat.getPreviousOutcome() == Seat.LOSS)
+			normalBet -= minBet;
+		else if (seat.getPreviousOutcome() == Seat.WIN)
+			normalBet += minBet;
+
+		if (normalBet > Math.min(money, minBet * 12))
+			normalBet = Math.min(money, minBet * 12);
+		if (normalBet < minBet)
+			normalBet = minBet;
+
+		previousBet = normalBet;
+		return normalBet;
+	}
+
+	@Override
+	public int insurance(Seat seat, Deck deck) {
+		int insureBet = 0;
+		if ((level & HARD_BET) == 0) { // Easy AI betting
+			if (random.nextInt(4) == 0)
+				insureBet = Math.min(seat.getMoney(), seat.getCurrentBet() / 2);
+		} else { // Hard AI betting
+			if (deck.getCount() >= 3)
+				insureBet = Math.min(seat.getMoney(), seat.getCurrentBet() / 2);
+		}
+		return insureBet;
+	}
+
+	@Override
+	public int play(Seat seat, Hand hand, Card dealerCard, int allowed) {
+		if (hand.isBlackJack()) {
+			return STAND;
+		}
+		if (hand.isBusted()) {
+			return STAND;
+		}
+		if ((level & HARD_PLAY) == 0) { // Easy AI play
+			int value = hand.getBestValue();
+			if (value == 11 || value == 10) {
+				if ((allowed & ALLOW_DOUBLE) != 0
+						&& random.nextInt(100) < (4 / 13) * 100) {
+					return DOUBLE;
+				}
+			}
+			if (value <= 11)
+				return HIT;
+			double bustingChance = (value - 8) / 13.0;
+			double successChance = 1 - bustingChance;
+			successChance = Math.pow((successChance + .6), 2) - .6;
+			if (random.nextInt(100) < successChance * 100)
+				return HIT;
+			else
+				return STAND;
+		} else { // Hard AI play
+			return basic.getAction(hand, dealerCard, allowed);
+		}
+	}
+}
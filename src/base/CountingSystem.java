@@ -0,0 +1,79 @@
+package base;
+
+/**
+ * Card counting systems, each defined by the tag added to the running count
+ * when a card of each value is drawn. Systems with half-point tags (Wong
+ * Halves) store their tags doubled; getScale() gives the factor to divide by.
+ * <p>
+ * Unbalanced systems (KO) do not add up to zero over a full deck, so they
+ * start from an initial running count that depends on the number of decks.
+ *
+ * @author Vance Zuo
+ */
+public enum CountingSystem {
+	//                          scale   A  2  3  4  5  6  7  8   9   T
+	HI_LO("Hi-Lo",                  1, -1, 1, 1, 1, 1, 1, 0, 0,  0, -1),
+	KO("KO",                        1, -1, 1, 1, 1, 1, 1, 1, 0,  0, -1),
+	HI_OPT_II("Hi-Opt II",          1,  0, 1, 1, 2, 2, 1, 1, 0,  0, -2),
+	OMEGA_II("Omega II",            1,  0, 1, 1, 2, 2, 2, 1, 0, -1, -2),
+	ZEN("Zen Count",                1, -1, 1, 1, 2, 2, 2, 1, 0,  0, -2),
+	WONG_HALVES("Wong Halves",      2, -2, 1, 2, 2, 3, 2, 1, 0, -1, -2);
+
+	private final String name;
+	private final int scale;
+	private final int[] tags = new int[10]; // by value - 1, times scale
+	private final boolean isBalanced;
+
+	private CountingSystem(String sysName, int tagScale, int... valueTags) {
+		name = sysName;
+		scale = tagScale;
+		System.arraycopy(valueTags, 0, tags, 0, tags.length);
+		int perDeck = 0;
+		for (int v = 0; v < 9; v++)
+			perDeck += 4 * tags[v];
+		perDeck += 16 * tags[9];
+		isBalanced = perDeck == 0;
+	}
+
+	/**
+	 * Gets the tag of a card value, multiplied by getScale().
+	 * @param value card value from 1 (ace) to 10
+	 * @return the scaled tag
+	 */
+	public int getTag(int value) {
+		return tags[value - 1];
+	}
+
+	/**
+	 * Gets the factor the tags are multiplied by to make them integers.
+	 * @return 2 for Wong Halves, otherwise 1
+	 */
+	public int getScale() {
+		return scale;
+	}
+
+	/**
+	 * Tells whether the tags add up to zero over a full deck.
+	 * @return true for balanced systems
+	 */
+	public boolean isBalanced() {
+		return isBalanced;
+	}
+
+	/**
+	 * Gets the running count to start from after a shuffle, multiplied by
+	 * getScale(). This is 0 for balanced systems.
+	 * @param decks number of decks in the shoe
+	 * @return the scaled initial running count
+	 */
+	public int getInitialCount(int decks) {
+		if (this == KO)
+			return -4 * (decks - 1) * scale;
+		return 0;
+	}
+
+	@Override
+	public String toString() {
+		return name;
+	}
+}
@@ -0,0 +1,203 @@
+package base;
+
+import java.util.ArrayList;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Works out exactly how the dealer's hand will end up, given his visible card
+ * and the cards remaining in the shoe. Cards are drawn without replacement, so
+ * the answer depends on the composition of the shoe, i.e. how many cards of
+ * each value are left.
+ * <p>
+ * Answers are cached by visible card and composition, so asking again about
+ * the same shoe is a lookup. The cache is shared safely between threads, and
+ * is cleared when it grows past its limit.
+ *
+ * @author Vance Zuo
+ */
+public class DealerProbabilities {
+
+	/** Index of the chance of busting in an outcome array */
+	public static final int BUST = 5;
+	/** Index of the chance of Blackjack in an outcome array */
+	public static final int BLACKJACK = 6;
+	/** Length of an outcome array: totals 17 to 21, bust, Blackjack */
+	public static final int NUM_OUTCOMES = 7;
+
+	// Answers kept per visible card, about a million in all
+	private static final int DEFAULT_CACHE_SIZE = 1 << 17;
+
+	private Rules rules;
+	private int maxCacheSize;
+	// One cache per visible card, keyed by the packed composition
+	private ArrayList<ConcurrentHashMap<Long, double[]>> cache =
+			new ArrayList<ConcurrentHashMap<Long, double[]>>();
+
+	/**
+	 * Creates a calculator with a cache of about a million answers, over all
+	 * visible cards.
+	 * @param tableRules the rules the dealer plays by
+	 */
+	public DealerProbabilities(Rules tableRules) {
+		this(tableRules, DEFAULT_CACHE_SIZE);
+	}
+
+	/**
+	 * Creates a calculator.
+	 * @param tableRules the rules the dealer plays by
+	 * @param cacheSize number of answers kept per visible card
+	 */
+	public DealerProbabilities(Rules tableRules, int cacheSize) {
+		rules = tableRules;
+		maxCacheSize = cacheSize;
+		for (int i = 0; i < 10; i++)
+			cache.add(new ConcurrentHashMap<Long, double[]>());
+	}
+
+	/**
+	 * Gets the chances of each final dealer hand. Index total - 17 holds the
+	 * chance of standing on total, and BUST and BLACKJACK the chances of
+	 * busting and of a Blackjack. The returned array is shared and must not be
+	 * modified.
+	 *
+	 * @param upcard value of the dealer's visible card, 1 (ace) to 10
+	 * @param counts number of cards of each value left in the shoe, indexed
+	 *               by value - 1, not counting the visible card
+	 * @return the outcome probabilities
+	 */
+	public double[] getOutcomes(int upcard, int[] counts) {
+		long key = pack(counts);
+		if (key < 0)
+			return compute(upcard, counts);
+		ConcurrentHashMap<Long, double[]> map = cache.get(upcard - 1);
+		double[] outcomes = map.get(key);
+		if (outcomes == null) {
+			outcomes = compute(upcard, counts);
+			if (map.size() >= maxCacheSize)
+				map.clear();
+			map.put(key, outcomes);
+		}
+		return outcomes;
+	}
+
+	/**
+	 * Gets the chances of each final dealer hand, given that he does not have
+	 * Blackjack (e.g. after he has peeked).
+	 *
+	 * @param upcard value of the dealer's visible card, 1 (ace) to 10
+	 * @param counts number of cards of each value left in the shoe
+	 * @param dest array of length NUM_OUTCOMES to fill in
+	 */
+	public void getOutcomesWithoutBlackjack(int upcard, int[] counts,
+			double[] dest) {
+		double[] outcomes = getOutcomes(upcard, counts);
+		double noBJ = 1 - outcomes[BLACKJACK];
+		for (int i = 0; i < BLACKJACK; i++)
+			dest[i] = outcomes[i] / noBJ;
+		dest[BLACKJACK] = 0;
+	}
+
+	/**
+	 * Gets the number of answers currently cached.
+	 * @return cache size
+	 */
+	public int getCacheSize() {
+		int size = 0;
+		for (int i = 0; i < cache.size(); i++)
+			size += cache.get(i).size();
+		return size;
+	}
+
+	/**
+	 * Packs a composition into the low 63 bits of a long: 9 bits for
+	 * ten-valued cards on top, then 6 bits for each of aces to nines. Keys
+	 * are never negative, which fits shoes of up to 15 decks.
+	 * @return the key, or -1 if a count does not fit
+	 */
+	private static long pack(int[] counts) {
+		if (counts[9] < 0 || counts[9] > 511)
+			return -1;
+		long key = counts[9];
+		for (int v = 0; v < 9; v++) {
+			if (counts[v] < 0 || counts[v] > 63)
+				return -1;
+			key = key << 6 | counts[v];
+		}
+		return key;
+	}
+
+	/**
+	 * Works out the outcomes without looking at the cache.
+	 */
+	private double[] compute(int upcard, int[] counts) {
+		int[] left = counts.clone();
+		int total = 0;
+		for (int v = 0; v < 10; v++)
+			total += left[v];
+		double[] outcomes = new double[NUM_OUTCOMES];
+		draw(upcard, upcard == 1, 1, 1.0, left, total, outcomes);
+		return outcomes;
+	}
+
+	/**
+	 * Adds up the dealer's final hands, drawing from the remaining cards
+	 * until he stands.
+	 */
+	private void draw(int hard, boolean ace, int cards, double prob,
+			int[] left, int total, double[] outcomes) {
+		boolean soft = ace && hard + 10 <= 21;
+		int best = soft ? hard + 10 : hard;
+		if (cards == 2 && best == 21) {
+			outcomes[BLACKJACK] += prob;
+		} else if (best > 21) {
+			outcomes[BUST] += prob;
+		} else if (best > 17 || best == 17
+				&& !(soft && rules.dealerHitsSoft17())) {
+			outcomes[best - 17] += prob;
+		} else {
+			for (int v = 1; v <= 10; v++) {
+				int n = left[v - 1];
+				if (n == 0)
+					continue;
+				left[v - 1]--;
+				draw(hard + v, ace || v == 1, cards + 1,
+						prob * n / total, left, total - 1, outcomes);
+				left[v - 1]++;
+			}
+		}
+	}
+
+	/**
+	 * Gets the composition of a full shoe.
+	 * @param decks number of decks in the shoe
+	 * @return number of cards of each value, indexed by value - 1
+	 */
+	public static int[] fullShoe(int decks) {
+		int[] counts = new int[10];
+		for (int v = 0; v < 9; v++)
+			counts[v] = 4 * decks;
+		counts[9] = 16 * decks;
+		return counts;
+	}
+
+	/**
+	 * Prints the dealer's chances off the top of a fresh 8 deck shoe.
+	 * @param args not used
+	 */
+	public static void main(String[] args) {
+		DealerProbabilities dp = new DealerProbabilities(Rules.DEFAULT);
+		System.out.println(Rules.DEFAULT + ", fresh 8 deck shoe");
+		System.out.println("Up      17      18      19      20      21"
+				+ "    Bust      BJ");
+		for (int up = 1; up <= 10; up++) {
+			int[] counts = fullShoe(8);
+			counts[up - 1]--;
+			double[] o = dp.getOutcomes(up, counts);
+			StringBuilder sb = new StringBuilder(up == 1 ? " A" : String
+					.format("%2d", up));
+			for (int i = 0; i < NUM_OUTCOMES; i++)
+				sb.append(String.format(" %7.4f", o[i]));
+			System.out.println(sb);
+		}
+	}
+}
@@ -5,35 +5,217 @@
 
 package base;
 
-import java.util.ArrayList;
-import java.util.Random;
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
 
 /**
  * Template for creating a deck of cards for a blackjack game. Static variables
  * can be changed to alter the number of cards/suits in a deck /Cards in the
  * first hand of the game/Faces in the deck. Methods will shuffle the deck, draw
  * a card, and add a card to the bottom of the deck.
+ * <p>
+ * The cards are kept in a fixed size circular array: draw takes the card at
+ * the top cursor and addToBottom writes behind the last card, so neither has
+ * to shift the rest of the deck, and shuffle swaps the cards in place.
+ * <p>
+ * The shoe is dealt like a casino's, with a cut card: returned cards wait in
+ * the discard tray (behind the undrawn cards) and are not dealt again until
+ * the shoe is shuffled. Once the cut card has come out, i.e. the fraction of
+ * the shoe given by the penetration has been dealt, the table calls endRound
+ * when the round is over and the whole shoe is shuffled once. Should the
+ * undrawn cards run out during a round anyway, the discards are shuffled and
+ * dealt from.
+ * <p>
+ * The deck also keeps count of how many cards of each value have not been
+ * drawn since the last shuffle, so that density and count queries do not
+ * need to look through the cards. Running counts are kept for Hi-Lo and any
+ * other CountingSystems the deck was created with, all updated in one pass
+ * over a table of tags when a card is drawn.
+ * <p>
+ * A deck made with infinite() has no shoe at all: every card is drawn
+ * independently of the others with a single call to the random number
+ * generator, as if from infinitely many decks, and returned cards are simply
+ * dropped. It never needs shuffling and its counts and densities stay those
+ * of a full shoe, so it is only good for estimates that do not depend on
+ * the composition of the shoe, but those run much faster.
+ * <p>
+ * A deck made with continuous() models a continuous shuffling machine: it is
+ * never shuffled as a whole, but at the end of every round the discards are
+ * put back at random places among the undrawn cards, one random swap each,
+ * so the cards stay in random order. Returned cards count as unseen again,
+ * so counting gains next to nothing against it, as in a casino.
  * 
  * @author Brian Wang
  */
 public class Deck {
-	private ArrayList<Card> deck = new ArrayList<Card>();
-	private final static int NUM_DECKS = 8;
+	/** Mode of a deck dealt from a shoe with a cut card */
+	public static final int SHOE = 0;
+	/** Mode of a deck drawing every card independently */
+	public static final int INFINITE = 1;
+	/** Mode of a deck shuffled continuously by a machine */
+	public static final int CONTINUOUS = 2;
+
+	private final static int DEFAULT_DECKS = 8;
+	private final int numDecks;
 	private int numCardsRemaining;
 	private final static int FACES_IN_DECK = 13;
 	private final static int SUITS_IN_DECK = 4;
 	private final static int CARDS_IN_DECK = 52;
 	private final static int CARDS_IN_FIRST_HAND = 2;
-	private int count;
+	private final static double DEFAULT_PENETRATION = 0.75;
+	private int[] remaining = new int[10]; // undrawn cards by value - 1
+
+	private CountingSystem[] systems; // Hi-Lo first
+	private int[] systemIndex; // position in systems by ordinal, or -1
+	private int[] tags; // tags[(value - 1) * systems.length + system]
+	private int[] counts; // running count of each system, scaled
+
+	private int mode;
+	private Card[] deck; // null for an infinite deck
+	private int top; // index of the top card in deck
+	private int size; // number of cards currently in deck, including discards
+	private double penetration = DEFAULT_PENETRATION;
+	private int cutCard; // cards remaining when the cut card comes out
+	private RandomGenerator random;
+	private long shuffles; // since the deck was made
+	private long cardsDrawn;
 
 	/**
-	 * Initalizes a simulated deckshoe, and shuffles.
+	 * Initalizes a simulated deckshoe that keeps the Hi-Lo count, and
+	 * shuffles.
 	 */
 	public Deck() {
-		for (int i = 0; i < NUM_DECKS; i++) {
+		this(new CountingSystem[0]);
+	}
+
+	/**
+	 * Initalizes a simulated deckshoe that keeps the Hi-Lo count and the
+	 * counts of other systems, and shuffles.
+	 * 
+	 * @param countingSystems
+	 *            systems to keep running counts for besides Hi-Lo
+	 */
+	public Deck(CountingSystem... countingSystems) {
+		this(RandomStreams.create(), countingSystems);
+	}
+
+	/**
+	 * Initalizes a simulated deckshoe that shuffles with the given random
+	 * number generator, so the same generator state deals the same cards.
+	 * 
+	 * @param shuffleRandom
+	 *            generator used for shuffling, not shared with other users
+	 * @param countingSystems
+	 *            systems to keep running counts for besides Hi-Lo
+	 */
+	public Deck(RandomGenerator shuffleRandom,
+			CountingSystem... countingSystems) {
+		this(SHOE, DEFAULT_DECKS, shuffleRandom, countingSystems);
+	}
+
+	/**
+	 * Initalizes a deck of any mode.
+	 * 
+	 * @param deckMode
+	 *            SHOE, INFINITE or CONTINUOUS
+	 * @param random
+	 *            generator used for shuffling or drawing, not shared with
+	 *            other users
+	 * @param countingSystems
+	 *            systems to keep running counts for besides Hi-Lo
+	 * @return the deck
+	 */
+	public static Deck create(int deckMode, RandomGenerator random,
+			CountingSystem... countingSystems) {
+		return create(deckMode, DEFAULT_DECKS, random, countingSystems);
+	}
+
+	/**
+	 * Initalizes a deck of any mode and number of decks.
+	 * 
+	 * @param deckMode
+	 *            SHOE, INFINITE or CONTINUOUS
+	 * @param decks
+	 *            number of decks in the shoe, at least 1; an infinite deck
+	 *            draws as if from a full shoe of this many
+	 * @param random
+	 *            generator used for shuffling or drawing, not shared with
+	 *            other users
+	 * @param countingSystems
+	 *            systems to keep running counts for besides Hi-Lo
+	 * @return the deck
+	 */
+	public static Deck create(int deckMode, int decks, RandomGenerator random,
+			CountingSystem... countingSystems) {
+		if (deckMode < SHOE || deckMode > CONTINUOUS)
+			throw new IllegalArgumentException("Unknown deck mode " + deckMode);
+		if (decks < 1)
+			throw new IllegalArgumentException("decks must be positive");
+		return new Deck(deckMode, decks, random, countingSystems);
+	}
+
+	/**
+	 * Initalizes an infinite deck, which draws every card independently.
+	 * 
+	 * @param drawRandom
+	 *            generator used for drawing, not shared with other users
+	 * @param countingSystems
+	 *            systems to keep (constant) running counts for besides
+	 *            Hi-Lo
+	 * @return the deck
+	 */
+	public static Deck infinite(RandomGenerator drawRandom,
+			CountingSystem... countingSystems) {
+		return new Deck(INFINITE, DEFAULT_DECKS, drawRandom, countingSystems);
+	}
+
+	/**
+	 * Initalizes a deckshoe shuffled continuously by a machine.
+	 * 
+	 * @param shuffleRandom
+	 *            generator used for shuffling, not shared with other users
+	 * @param countingSystems
+	 *            systems to keep running counts for besides Hi-Lo
+	 * @return the deck
+	 */
+	public static Deck continuous(RandomGenerator shuffleRandom,
+			CountingSystem... countingSystems) {
+		return new Deck(CONTINUOUS, DEFAULT_DECKS, shuffleRandom,
+				countingSystems);
+	}
+
+	private Deck(int deckMode, int decks, RandomGenerator shuffleRandom,
+			CountingSystem[] countingSystems) {
+		mode = deckMode;
+		numDecks = decks;
+		random = shuffleRandom;
+		systemIndex = new int[CountingSystem.values().length];
+		Arrays.fill(systemIndex, -1);
+		systems = new CountingSystem[countingSystems.length + 1];
+		int n = 0;
+		systems[n] = CountingSystem.HI_LO;
+		systemIndex[CountingSystem.HI_LO.ordinal()] = n++;
+		for (CountingSystem system : countingSystems) {
+			if (systemIndex[system.ordinal()] < 0) {
+				systems[n] = system;
+				systemIndex[system.ordinal()] = n++;
+			}
+		}
+		systems = Arrays.copyOf(systems, n);
+		tags = new int[10 * n];
+		for (int v = 1; v <= 10; v++) {
+			for (int i = 0; i < n; i++)
+				tags[(v - 1) * n + i] = systems[i].getTag(v);
+		}
+		counts = new int[n];
+
+		if (mode != INFINITE)
+			deck = new Card[numDecks * CARDS_IN_DECK];
+		setPenetration(DEFAULT_PENETRATION);
+		for (int i = 0; deck != null && i < numDecks; i++) {
 			for (int j = 0; j < SUITS_IN_DECK; j++) {
 				for (int k = 0; k < FACES_IN_DECK; k++) {
-					deck.add(new Card(j, k));
+					deck[size++] = Card.get(j, k);
 				}
 			}
 		}
@@ -41,25 +223,129 @@ public class Deck {
 	}
 
 	/**
-	 * Shuffles the deck. Also resets the count and the number of cards
-	 * remaining.
+	 * Tells whether this is an infinite deck, see infinite().
+	 * 
+	 * @return true if cards are drawn independently
+	 */
+	public boolean isInfinite() {
+		return deck == null;
+	}
+
+	/**
+	 * Gets the number of decks in the shoe.
+	 * 
+	 * @return the number of decks
+	 */
+	public int getNumDecks() {
+		return numDecks;
+	}
+
+	/**
+	 * Gets the mode of the deck.
+	 * 
+	 * @return SHOE, INFINITE or CONTINUOUS
+	 */
+	public int getMode() {
+		return mode;
+	}
+
+	/**
+	 * Sets how deep into the shoe the cut card is placed.
+	 * 
+	 * @param fraction
+	 *            fraction of the shoe dealt before reshuffling, more than 0
+	 *            and at most 1 (0.75 by default)
+	 */
+	public void setPenetration(double fraction) {
+		if (!(fraction > 0 && fraction <= 1))
+			throw new IllegalArgumentException("Penetration must be in (0, 1]");
+		penetration = fraction;
+		int shoe = numDecks * CARDS_IN_DECK;
+		cutCard = shoe - (int) Math.round(fraction * shoe);
+	}
+
+	/**
+	 * Gets how deep into the shoe the cut card is placed.
+	 * 
+	 * @return fraction of the shoe dealt before reshuffling
+	 */
+	public double getPenetration() {
+		return penetration;
+	}
+
+	/**
+	 * Tells whether the cut card has come out, so the shoe will be shuffled
+	 * at the end of the round. Only ever true for a SHOE deck.
+	 * 
+	 * @return true if the penetration has been reached
+	 */
+	public boolean isCutCardOut() {
+		return mode == SHOE && numCardsRemaining <= cutCard;
+	}
+
+	/**
+	 * Called by the table once a round is over and every card is back in
+	 * the deck. Shuffles the shoe if the cut card has come out, or puts the
+	 * discards back into a continuous shuffler.
+	 */
+	public void endRound() {
+		if (mode == CONTINUOUS)
+			reinsertDiscards();
+		else if (isCutCardOut())
+			shuffle();
+	}
+
+	/**
+	 * Puts every card in the discard tray back at a random place among the
+	 * undrawn cards, with a step of an inside-out Fisher-Yates shuffle each,
+	 * and takes them off the counts again.
+	 */
+	private void reinsertDiscards() {
+		int n = counts.length;
+		while (numCardsRemaining < size) {
+			int a = position(numCardsRemaining);
+			int b = position(random.nextInt(numCardsRemaining + 1));
+			Card returned = deck[a];
+			deck[a] = deck[b];
+			deck[b] = returned;
+			numCardsRemaining++;
+			int value = returned.getLowValue();
+			remaining[value - 1]++;
+			int row = (value - 1) * n;
+			for (int i = 0; i < n; i++)
+				counts[i] -= tags[row + i];
+		}
+	}
+
+	/**
+	 * Shuffles every card in the deck, discards included, with a
+	 * Fisher-Yates shuffle. Also resets the counts and recounts the cards
+	 * remaining, which are all the cards in the deck. An infinite deck has
+	 * nothing to shuffle, and keeps the composition of a full shoe.
 	 */
 	public void shuffle() {
-		ArrayList<Card> tempDeck = new ArrayList<Card>();
-		Random random = new Random();
-		while (deck.size() > 0) {
-			int cardToRemove = random.nextInt(deck.size());
-			Card tempCard = deck.get(cardToRemove);
-			deck.remove(cardToRemove);
-			tempDeck.add(tempCard);
+		for (int i = 0; i < systems.length; i++)
+			counts[i] = systems[i].getInitialCount(numDecks);
+		shuffles++;
+		if (deck == null) {
+			numCardsRemaining = numDecks * CARDS_IN_DECK;
+			for (int v = 0; v < 9; v++)
+				remaining[v] = numDecks * SUITS_IN_DECK;
+			remaining[9] = numDecks * SUITS_IN_DECK * 4; // 10, J, Q, K
+			return;
 		}
-		while (tempDeck.size() > 0) {
-			Card tempCard = tempDeck.get(0);
-			tempDeck.remove(0);
-			deck.add(tempCard);
+		Arrays.fill(remaining, 0);
+		for (int i = size - 1; i > 0; i--) {
+			int a = position(i);
+			int b = position(random.nextInt(i + 1));
+			Card tempCard = deck[a];
+			deck[a] = deck[b];
+			deck[b] = tempCard;
+			remaining[deck[a].getLowValue() - 1]++; // now final
 		}
-		count = 0;
-		numCardsRemaining = NUM_DECKS * CARDS_IN_DECK;
+		if (size > 0)
+			remaining[deck[top].getLowValue() - 1]++;
+		numCardsRemaining = size;
 	}
 
 	/**
@@ -68,38 +354,203 @@ public class Deck {
 	 * @return Card card from the top of the Deck Shoe
 	 */
 	public Card draw() {
-		Card toDraw = deck.get(0);
-		deck.remove(0);
+		if (deck == null) {
+			cardsDrawn++;
+			return Card.get(random.nextInt(CARDS_IN_DECK));
+		}
+		if (numCardsRemaining == 0) { // deal on from the discards
+			if (size == 0)
+				throw new IllegalStateException("Deck is empty");
+			shuffle();
+		}
+		Card toDraw = deck[top];
+		deck[top] = null;
+		top = position(1);
+		size--;
 		numCardsRemaining--;
-		int face = toDraw.getFace();
-		if (face >= Card.TWO && face <= Card.SIX)
-			count++;
-		if (face >= Card.TEN || face == Card.ACE)
-			count--;
+		cardsDrawn++;
+		int value = toDraw.getLowValue();
+		remaining[value - 1]--;
+		int n = counts.length;
+		int row = (value - 1) * n;
+		for (int i = 0; i < n; i++)
+			counts[i] += tags[row + i];
 		return toDraw;
 	}
 
 	/**
-	 * Gets the current true card count (for AI use).
+	 * Gets the current Hi-Lo true card count, rounded (for AI use).
 	 * 
 	 * @return Integer representing the current card count
 	 */
 	public int getCount() {
-		double decksLeft = (double) numCardsRemaining / CARDS_IN_DECK;
-		return (int) Math.round(count / decksLeft);
+		// round(count / decksLeft), in integer arithmetic
+		int left = Math.max(numCardsRemaining, 1); // 0 just before a reshuffle
+		return Math.floorDiv(2 * counts[0] * CARDS_IN_DECK + left, 2 * left);
+	}
+
+	/**
+	 * Gets the current Hi-Lo running count.
+	 * 
+	 * @return the running count since the last shuffle
+	 */
+	public int getRunningCount() {
+		return counts[0];
+	}
+
+	/**
+	 * Gets the current Hi-Lo true count, without rounding.
+	 * 
+	 * @return the running count per deck remaining
+	 */
+	public double getTrueCount() {
+		int left = Math.max(numCardsRemaining, 1); // 0 just before a reshuffle
+		return (double) counts[0] * CARDS_IN_DECK / left;
+	}
+
+	/**
+	 * Gets the running count of a counting system.
+	 * 
+	 * @param system
+	 *            a system the deck was created with, or Hi-Lo
+	 * @return the running count since the last shuffle
+	 */
+	public double getRunningCount(CountingSystem system) {
+		return (double) counts[indexOf(system)] / system.getScale();
+	}
+
+	/**
+	 * Gets the true count of a counting system, i.e. its running count per
+	 * deck remaining. For unbalanced systems this is only the running count
+	 * scaled by the decks remaining.
+	 * 
+	 * @param system
+	 *            a system the deck was created with, or Hi-Lo
+	 * @return the true count
+	 */
+	public double getTrueCount(CountingSystem system) {
+		int left = Math.max(numCardsRemaining, 1); // 0 just before a reshuffle
+		return getRunningCount(system) * CARDS_IN_DECK / left;
+	}
+
+	/**
+	 * Gets the counting systems the deck keeps counts for.
+	 * 
+	 * @return the systems, Hi-Lo first
+	 */
+	public CountingSystem[] getCountingSystems() {
+		return systems.clone();
+	}
+
+	/**
+	 * Gets the position of a system in counts.
+	 */
+	private int indexOf(CountingSystem system) {
+		int i = systemIndex[system.ordinal()];
+		if (i < 0)
+			throw new IllegalArgumentException(system + " is not counted");
+		return i;
+	}
+
+	/**
+	 * Gets the number of cards not drawn since the last shuffle.
+	 * 
+	 * @return cards remaining
+	 */
+	public int getCardsRemaining() {
+		return numCardsRemaining;
+	}
+
+	/**
+	 * Gets the number of times the deck has been shuffled, including when it
+	 * was made.
+	 * 
+	 * @return shuffles so far
+	 */
+	public long getShuffles() {
+		return shuffles;
+	}
+
+	/**
+	 * Gets the number of cards drawn since the deck was made.
+	 * 
+	 * @return cards drawn so far
+	 */
+	public long getCardsDrawn() {
+		return cardsDrawn;
+	}
+
+	/**
+	 * Gets the number of cards of a value not drawn since the last shuffle.
+	 * 
+	 * @param value
+	 *            card value from 1 (ace) to 10 (ten and face cards)
+	 * @return cards of that value remaining
+	 */
+	public int getRemaining(int value) {
+		return remaining[value - 1];
+	}
+
+	/**
+	 * Gets the fraction of the remaining cards that have a value, 0 if no
+	 * cards remain.
+	 * 
+	 * @param value
+	 *            card value from 1 (ace) to 10 (ten and face cards)
+	 * @return density of that value
+	 */
+	public double getDensity(int value) {
+		int left = Math.max(numCardsRemaining, 1); // 0 just before a reshuffle
+		return (double) remaining[value - 1] / left;
+	}
+
+	/**
+	 * Gets the fraction of the remaining cards that are tens or face cards.
+	 * 
+	 * @return density of ten-valued cards
+	 */
+	public double getTensDensity() {
+		return getDensity(10);
 	}
 
 	/**
-	 * Adds a card to the bottom of the deck. Will also shuffle if there are few
-	 * cards remaining.
+	 * Copies the number of remaining cards of each value into an array, as
+	 * used by DealerProbabilities.
+	 * 
+	 * @param dest
+	 *            array of length 10 to fill, indexed by value - 1
+	 */
+	public void getComposition(int[] dest) {
+		System.arraycopy(remaining, 0, dest, 0, remaining.length);
+	}
+
+	/**
+	 * Puts a card in the discard tray, at the bottom of the deck. Returned
+	 * cards are not counted as remaining until the next shuffle, since they
+	 * will not be drawn before it. An infinite deck ignores returned cards.
 	 * 
 	 * @param c
 	 *            Card to be added the bottom of the deck
 	 */
 	public void addToBottom(Card c) {
-		deck.add(c);
-		if (numCardsRemaining < 52 * 2) { // 2 decks left
-			shuffle();
-		}
+		if (deck == null)
+			return;
+		if (size == deck.length)
+			throw new IllegalStateException("Deck is full");
+		deck[position(size)] = c;
+		size++;
+	}
+
+	/**
+	 * Gets the array index of the card i cards below the top of the deck.
+	 * 
+	 * @param i number of cards from the top
+	 * @return index of that card in the deck array
+	 */
+	private int position(int i) {
+		int index = top + i;
+		if (index >= deck.length)
+			index -= deck.length;
+		return index;
 	}
 }
@@ -12,12 +12,27 @@ import java.util.ArrayList;
  * value of the hand, the number of cards in the hand, whether the hand has
  * busted or is blackjack. They can also add cards to the hand and clear the
  * hand. A Hand is initialized with INITIAL_HAND_SIZE number of cards, and cards
- * cannot be removed by the user.
+ * cannot be removed by the user. The hand also remembers which of its cards
+ * are face down, since the cards themselves are shared.
+ * <p>
+ * Hands can be reused: a Seat keeps a small pool of them, which are dealt
+ * anew with deal() or startSplit() each round instead of being replaced.
+ * <p>
+ * The value of the hand is kept up to date as cards are added, so asking for
+ * the best value, whether it is soft, busted or Blackjack does not look at the
+ * cards again.
  * 
  * @author Brian Wang
  */
 public class Hand {
 	private ArrayList<Card> playerHand = new ArrayList<Card>();
+	private int faceDown; // bit i is set if card i is face down
+	private int hardValue; // value with every ace counted as 1
+	private int numAces;
+	private int bestValue;
+	private boolean isSoft; // an ace is counted as 11 in bestValue
+	private boolean isBlackJack;
+	private boolean isSplit; // came from splitting a pair
 	/**
 	 * The number of cards in the first hand
 	 */
@@ -36,8 +51,63 @@ public class Hand {
 	 *            The second Card to be added to the Hand
 	 */
 	public Hand(Card card1, Card card2) {
-		playerHand.add(card1);
-		playerHand.add(card2);
+		deal(card1, card2);
+	}
+
+	/**
+	 * Creates a hand with no cards, to be dealt later.
+	 */
+	public Hand() {
+	}
+
+	/**
+	 * Empties the hand and gives it Card c1 and Card c2
+	 * 
+	 * @param card1
+	 *            The first Card to be added to the Hand
+	 * @param card2
+	 *            The second Card to be added to the Hand
+	 */
+	public void deal(Card card1, Card card2) {
+		clear();
+		addCard(card1);
+		addCard(card2);
+		isBlackJack = bestValue == BLACKJACK_VALUE;
+	}
+
+	/**
+	 * Empties the hand and gives it the card split off another hand. The
+	 * hand is then played like any other, except that 21 on two cards is not
+	 * Blackjack.
+	 * 
+	 * @param card
+	 *            The card split off
+	 */
+	public void startSplit(Card card) {
+		clear();
+		addCard(card);
+		isSplit = true;
+	}
+
+	/**
+	 * Takes the second card of a pair away, to start another hand with. This
+	 * hand is left with its first card, and is now a split hand.
+	 * 
+	 * @return The Card taken away
+	 */
+	public Card splitOff() {
+		if (playerHand.size() != INITIAL_HAND_SIZE)
+			throw new IllegalStateException("Only two cards can be split");
+		Card card = playerHand.remove(1);
+		hardValue -= card.getLowValue();
+		if (card.getFace() == Card.ACE)
+			numAces--;
+		isSoft = numAces > 0 && hardValue + 10 <= BLACKJACK_VALUE;
+		bestValue = isSoft ? hardValue + 10 : hardValue;
+		faceDown &= 1;
+		isBlackJack = false;
+		isSplit = true;
+		return card;
 	}
 
 	/**
@@ -48,6 +118,11 @@ public class Hand {
 	 */
 	public void addCard(Card toAdd) {
 		playerHand.add(toAdd);
+		hardValue += toAdd.getLowValue();
+		if (toAdd.getFace() == Card.ACE)
+			numAces++;
+		isSoft = numAces > 0 && hardValue + 10 <= BLACKJACK_VALUE;
+		bestValue = isSoft ? hardValue + 10 : hardValue;
 	}
 
 	/**
@@ -61,6 +136,27 @@ public class Hand {
 		return playerHand.get(index);
 	}
 
+	/**
+	 * Tells whether the card at index position of the hand is face up
+	 * 
+	 * @param index
+	 *            Position of the card
+	 * @return boolean representing whether the card is face up or down
+	 */
+	public boolean isFaceUp(int index) {
+		return (faceDown & (1 << index)) == 0;
+	}
+
+	/**
+	 * Flips the orientation of the card at index position of the hand
+	 * 
+	 * @param index
+	 *            Position of the card to be flipped
+	 */
+	public void flip(int index) {
+		faceDown ^= 1 << index;
+	}
+
 	/**
 	 * Gets the number of cards in the Hand
 	 * 
@@ -76,22 +172,34 @@ public class Hand {
 	 * @return Integer value of the hand
 	 */
 	public int getBestValue() {
-		int totalValue = 0;
-		for (Card c : playerHand) {
-			if (c.getFace() != Card.ACE) {
-				totalValue += c.getValue();
-			}
-		}
-		for (Card c : playerHand) {
-			if (c.getFace() == Card.ACE) {
-				if (totalValue + c.getHighValue() <= 21) {
-					totalValue += c.getHighValue();
-				} else {
-					totalValue += c.getLowValue(); // 1
-				}
-			}
-		}
-		return totalValue;
+		return bestValue;
+	}
+
+	/**
+	 * Gets the value of the hand counting every ace as 1
+	 * 
+	 * @return Integer hard value of the hand
+	 */
+	public int getHardValue() {
+		return hardValue;
+	}
+
+	/**
+	 * Tells whether the hand is soft, i.e. its best value counts an ace as 11
+	 * 
+	 * @return boolean representing whether the Hand is soft
+	 */
+	public boolean isSoft() {
+		return isSoft;
+	}
+
+	/**
+	 * Gets the number of aces in the hand
+	 * 
+	 * @return Integer number of aces
+	 */
+	public int getNumAces() {
+		return numAces;
 	}
 
 	/**
@@ -100,25 +208,40 @@ public class Hand {
 	 * @return boolean representing whether the Hand has busted
 	 */
 	public boolean isBusted() {
-		return getBestValue() > 21;
+		return bestValue > BLACKJACK_VALUE;
 	}
 
 	/**
-	 * Hand is Blackjack if and only if it has 2 cards: an Ace and a 10, Jack,
-	 * Queen, or King
+	 * Hand is Blackjack if and only if its first 2 cards are an Ace and a 10,
+	 * Jack, Queen, or King
 	 * 
 	 * @return boolean representing whether the Hand is BlackJack
 	 */
 	public boolean isBlackJack() {
-		boolean hasAce = false;
-		boolean hasTen = false;
-		for (int i = 0; i < INITIAL_HAND_SIZE; i++) {
-			if (playerHand.get(i).getFace() == Card.ACE)
-				hasAce = true;
-			if (playerHand.get(i).getValue() == 10)
-				hasTen = true;
-		}
-		return hasAce && hasTen;
+		return isBlackJack;
+	}
+
+	/**
+	 * Tells whether the hand came from splitting a pair
+	 * 
+	 * @return boolean representing whether the Hand is a split hand
+	 */
+	public boolean isSplit() {
+		return isSplit;
+	}
+
+	/**
+	 * Removes the cards from the hand, so it can be dealt again
+	 */
+	public void clear() {
+		playerHand.clear();
+		faceDown = 0;
+		hardValue = 0;
+		numAces = 0;
+		bestValue = 0;
+		isSoft = false;
+		isBlackJack = false;
+		isSplit = false;
 	}
 
 	/**
@@ -131,7 +254,7 @@ public class Hand {
 		for (int i = 0; i < playerHand.size(); i++) {
 			remove.add(playerHand.get(i));
 		}
-		playerHand.clear();
+		clear();
 		return remove;
 	}
 }
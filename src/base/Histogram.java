@@ -0,0 +1,149 @@
+package base;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A histogram of non-negative values that many threads can record into at
+ * once. Values are counted in power-of-two buckets (0, 1, 2-3, 4-7, ...), each
+ * a striped LongAdder, so recording is an add to a counter that other threads
+ * rarely touch, and percentiles are accurate to within a factor of two.
+ * <p>
+ * A thread recording very often can record into a Recorder of its own
+ * instead, with plain fields, and flush it into the histogram now and then.
+ *
+ * @author Vance Zuo
+ */
+public class Histogram {
+
+	private static final int BUCKETS = 64;
+
+	private LongAdder[] buckets = new LongAdder[BUCKETS];
+	private LongAdder count = new LongAdder();
+	private LongAdder sum = new LongAdder();
+
+	/**
+	 * Creates an empty histogram.
+	 */
+	public Histogram() {
+		for (int i = 0; i < BUCKETS; i++)
+			buckets[i] = new LongAdder();
+	}
+
+	/**
+	 * Records a value. Negative values are recorded as 0.
+	 * @param value the value
+	 */
+	public void record(long value) {
+		if (value < 0)
+			value = 0;
+		buckets[bucketOf(value)].increment();
+		count.increment();
+		sum.add(value);
+	}
+
+	/**
+	 * Gets the bucket a non-negative value is counted in.
+	 */
+	private static int bucketOf(long value) {
+		return BUCKETS - Long.numberOfLeadingZeros(value);
+	}
+
+	/**
+	 * Makes a recorder for one thread, which adds to this histogram when
+	 * flushed.
+	 * @return the recorder
+	 */
+	public Recorder newRecorder() {
+		return new Recorder();
+	}
+
+	/**
+	 * Counts values for a Histogram on one thread only, until flushed.
+	 */
+	public class Recorder {
+		private long[] local = new long[BUCKETS];
+		private long localCount;
+		private long localSum;
+
+		private Recorder() {
+		}
+
+		/**
+		 * Records a value. Negative values are recorded as 0.
+		 * @param value the value
+		 */
+		public void record(long value) {
+			if (value < 0)
+				value = 0;
+			local[bucketOf(value)]++;
+			localCount++;
+			localSum += value;
+		}
+
+		/**
+		 * Adds the values recorded since the last flush to the histogram.
+		 */
+		public void flush() {
+			if (localCount == 0)
+				return;
+			for (int i = 0; i < BUCKETS; i++) {
+				if (local[i] != 0) {
+					buckets[i].add(local[i]);
+					local[i] = 0;
+				}
+			}
+			count.add(localCount);
+			sum.add(localSum);
+			localCount = 0;
+			localSum = 0;
+		}
+	}
+
+	/**
+	 * Gets the number of values recorded.
+	 * @return the count
+	 */
+	public long getCount() {
+		return count.sum();
+	}
+
+	/**
+	 * Gets the sum of the values recorded.
+	 * @return the sum
+	 */
+	public long getSum() {
+		return sum.sum();
+	}
+
+	/**
+	 * Gets the mean of the values recorded.
+	 * @return the mean, or 0 if there are none
+	 */
+	public double getMean() {
+		long n = count.sum();
+		return n == 0 ? 0 : (double) sum.sum() / n;
+	}
+
+	/**
+	 * Gets an upper bound on a percentile of the values recorded, namely the
+	 * largest value of the bucket it falls in.
+	 * @param percentile the percentile, from 0 to 100
+	 * @return the bound, or 0 if there are no values
+	 */
+	public long getPercentile(double percentile) {
+		long[] counts = new long[BUCKETS];
+		long n = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			counts[i] = buckets[i].sum();
+			n += counts[i];
+		}
+		long rank = (long) Math.ceil(n * percentile / 100);
+		long seen = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			seen += counts[i];
+			if (seen >= rank && seen > 0)
+				return (1L << i) - 1; // Long.MAX_VALUE for the last bucket
+		}
+		return 0;
+	}
+}
@@ -0,0 +1,430 @@
+package base;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.random.RandomGenerator.SplittableGenerator;
+
+import javax.management.JMException;
+
+/**
+ * Runs the AI experiment headless on all cores. The rounds are split between
+ * worker threads, each with its own table, deck shoe and set of the four AI
+ * profiles, and the per-profile results are merged at the end. Each worker
+ * can also record its rounds into a RoundLog file of its own, and count them
+ * into shared TableMetrics to watch a long run while it goes.
+ * <p>
+ * Every deck and AI gets its own random number generator, split off one root
+ * generator. With a seed, a run with the same number of rounds and threads
+ * gives exactly the same results.
+ * <p>
+ * The tables normally deal from an 8-deck shoe with a cut card. They can
+ * also deal from a continuous shuffling machine, or, for quick estimates of
+ * strategies that do not depend on the shoe, from an infinite deck. They
+ * play by Rules.DEFAULT unless given other rules, which the skilled AIs'
+ * basic strategy follows too.
+ * <p>
+ * Usage: java base.MonteCarloRunner [rounds] [threads] [seed] [log directory]
+ * [metrics port or file] [shoe|infinite|csm] [rules, e.g. 6D,H17,6:5,NS]
+ *
+ * @author Vance Zuo
+ */
+public class MonteCarloRunner {
+
+	/** The four AI profiles, in the order they sit at the table */
+	public static final int[] PROFILES = {
+			ComputerStrategy.EASY_BET | ComputerStrategy.EASY_PLAY,
+			ComputerStrategy.HARD_BET | ComputerStrategy.EASY_PLAY,
+			ComputerStrategy.EASY_BET | ComputerStrategy.HARD_PLAY,
+			ComputerStrategy.HARD_BET | ComputerStrategy.HARD_PLAY };
+
+	/** Names of the four AI profiles */
+	public static final String[] PROFILE_NAMES = { "Amateur/Beginner AI",
+			"Card-Counter/Beginner AI", "Amateur/Skilled AI",
+			"Card-Counter/Skilled AI" };
+
+	// Large enough that the AIs never bet "on credit" and shrink their bets,
+	// for about 10^8 rounds per worker: the worst profile loses some $8 a
+	// round at a $25 table, and a seat's money is an int
+	private static final int BANKROLL = Integer.MAX_VALUE / 2;
+
+	private int minBet;
+	private int numThreads;
+	private Path logDir;
+	private TableMetrics metrics;
+	private int deckMode = Deck.SHOE;
+	private Rules rules = Rules.DEFAULT;
+	private boolean seeded;
+	private long seed;
+
+	/**
+	 * Creates a runner.
+	 * @param minimumBet minimum bet of the simulated tables
+	 * @param threads number of worker threads
+	 */
+	public MonteCarloRunner(int minimumBet, int threads) {
+		if (threads < 1)
+			throw new IllegalArgumentException("threads must be positive");
+		minBet = minimumBet;
+		numThreads = threads;
+	}
+
+	/**
+	 * Makes the workers record every round, each into the file
+	 * worker-N.bjlog in a directory. Existing logs are appended to.
+	 * @param directory the directory, or null to not record rounds
+	 */
+	public void setLogDirectory(Path directory) {
+		logDir = directory;
+	}
+
+	/**
+	 * Sets the kind of deck the tables deal from.
+	 * @param mode Deck.SHOE (the default), Deck.INFINITE or Deck.CONTINUOUS
+	 */
+	public void setDeckMode(int mode) {
+		deckMode = mode;
+	}
+
+	/**
+	 * Sets the rules the tables play by. The minimum bet of the runner
+	 * replaces that of the rules.
+	 * @param tableRules the rules, Rules.DEFAULT by default
+	 */
+	public void setRules(Rules tableRules) {
+		rules = tableRules;
+	}
+
+	/**
+	 * Makes the workers count their rounds into metrics.
+	 * @param tableMetrics the metrics, or null to not count rounds
+	 */
+	public void setMetrics(TableMetrics tableMetrics) {
+		metrics = tableMetrics;
+	}
+
+	/**
+	 * Makes the runs reproducible, by deriving all random numbers from a seed.
+	 * @param rootSeed the seed
+	 */
+	public void setSeed(long rootSeed) {
+		seeded = true;
+		seed = rootSeed;
+	}
+
+	/**
+	 * Plays the given number of rounds, split evenly between the workers.
+	 * @param rounds total number of rounds to play
+	 * @return results for each profile, in the order of PROFILES
+	 * @throws InterruptedException if interrupted while waiting for workers
+	 */
+	public ProfileResult[] run(long rounds) throws InterruptedException {
+		ExecutorService pool = Executors.newFixedThreadPool(numThreads);
+		SplittableGenerator root = seeded ? RandomStreams.create(seed)
+				: RandomStreams.create();
+		try {
+			ArrayList<Future<ProfileResult[]>> futures =
+					new ArrayList<Future<ProfileResult[]>>();
+			for (int i = 0; i < numThreads; i++) {
+				long share = rounds / numThreads;
+				if (i < rounds % numThreads)
+					share++;
+				futures.add(pool.submit(new Worker(i, share, root.split())));
+			}
+			ProfileResult[] total = newResults();
+			for (Future<ProfileResult[]> f : futures) {
+				ProfileResult[] part = f.get();
+				for (int p = 0; p < total.length; p++)
+					total[p].merge(part[p]);
+			}
+			return total;
+		} catch (ExecutionException e) {
+			throw new RuntimeException("Simulation worker failed", e.getCause());
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	/**
+	 * Makes an empty result for each profile.
+	 * @return the results
+	 */
+	private static ProfileResult[] newResults() {
+		ProfileResult[] results = new ProfileResult[PROFILES.length];
+		for (int p = 0; p < PROFILES.length; p++)
+			results[p] = new ProfileResult(PROFILE_NAMES[p]);
+		return results;
+	}
+
+	/**
+	 * Plays a share of the rounds at a table of its own.
+	 */
+	private class Worker implements Callable<ProfileResult[]> {
+		private int index;
+		private long rounds;
+		private SplittableGenerator random;
+
+		public Worker(int workerIndex, long numRounds,
+				SplittableGenerator workerRandom) {
+			index = workerIndex;
+			rounds = numRounds;
+			random = workerRandom;
+		}
+
+		@Override
+		public ProfileResult[] call() throws IOException {
+			TableEngine table = new TableEngine(Deck.create(deckMode,
+					rules.decks(), random.split()), minBet, rules);
+			Seat[] players = new Seat[PROFILES.length];
+			for (int p = 0; p < PROFILES.length; p++) {
+				players[p] = new Seat(PROFILE_NAMES[p],
+						new ComputerStrategy(PROFILES[p], random.split(),
+								rules), BANKROLL, minBet);
+				table.addSeat(players[p]);
+			}
+			ProfileResult[] results = newResults();
+			int[] moneyBefore = new int[players.length];
+			RoundLog log = null;
+			if (logDir != null) {
+				log = new RoundLog(
+						logDir.resolve("worker-" + index + ".bjlog"));
+				table.addListener(log);
+			}
+			if (metrics != null)
+				metrics.attach(table);
+			try {
+				for (long r = 0; r < rounds; r++) {
+					for (int p = 0; p < players.length; p++)
+						moneyBefore[p] = players[p].getMoney();
+					table.playRound();
+					for (int p = 0; p < players.length; p++)
+						results[p].add(players[p], moneyBefore[p]);
+				}
+			} finally {
+				if (metrics != null)
+					metrics.detach(table);
+				if (log != null)
+					log.close();
+			}
+			return results;
+		}
+	}
+
+	/**
+	 * Accumulated results of one AI profile.
+	 */
+	public static class ProfileResult {
+		private String name;
+		private long wins;
+		private long pushes;
+		private long losses;
+		private BankrollStats stats = new BankrollStats();
+
+		/**
+		 * Creates an empty result.
+		 * @param profileName name of the profile
+		 */
+		public ProfileResult(String profileName) {
+			name = profileName;
+		}
+
+		/**
+		 * Records one round.
+		 * @param net money won (or lost, if negative) in the round
+		 * @param bet the final bet of the round, including doubling down
+		 */
+		public void add(long net, long bet) {
+			if (net > 0)
+				wins++;
+			else if (net == 0)
+				pushes++;
+			else
+				losses++;
+			stats.add(net, bet);
+		}
+
+		/**
+		 * Records the round a seat has just played. A round the seat sat out
+		 * is left out, as it is from the seat's own stats.
+		 * @param seat the seat
+		 * @param moneyBefore the seat's money before the round
+		 */
+		public void add(Seat seat, int moneyBefore) {
+			if (seat.getNumHands() > 0)
+				add((long) seat.getMoney() - moneyBefore, seat.getCurrentBet());
+		}
+
+		/**
+		 * Adds the rounds of another result to this one, as if played after
+		 * them.
+		 * @param other the result to merge in
+		 */
+		public void merge(ProfileResult other) {
+			wins += other.wins;
+			pushes += other.pushes;
+			losses += other.losses;
+			stats.merge(other.stats);
+		}
+
+		/** @return name of the profile */
+		public String getName() { return name; }
+
+		/** @return number of rounds played */
+		public long getRounds() { return stats.getRounds(); }
+
+		/** @return fraction of rounds with a net win */
+		public double getWinRate() { return (double) wins / getRounds(); }
+
+		/** @return fraction of rounds breaking even */
+		public double getPushRate() { return (double) pushes / getRounds(); }
+
+		/** @return fraction of rounds with a net loss */
+		public double getLossRate() { return (double) losses / getRounds(); }
+
+		/**
+		 * Gets the expected value of a round.
+		 * @return mean money won per round
+		 */
+		public double getExpectedValue() {
+			return stats.getMean();
+		}
+
+		/**
+		 * Gets the standard error of the expected value.
+		 * @return standard error of the mean money won per round
+		 */
+		public double getStandardError() {
+			return stats.getStandardError();
+		}
+
+		/**
+		 * Gets the money won per money bet (including doubling down).
+		 * @return return on the money wagered
+		 */
+		public double getReturnOnWagered() {
+			return stats.getReturnOnWagered();
+		}
+
+		/**
+		 * Gets the bankroll statistics of the profile, e.g. for its drawdown
+		 * and risk of ruin.
+		 * @return the stats
+		 */
+		public BankrollStats getStats() {
+			return stats;
+		}
+	}
+
+	/**
+	 * Reads rules written as comma separated changes to Rules.DEFAULT: a
+	 * number of decks (e.g. "6D"), "H17" or "S17", a Blackjack payout (e.g.
+	 * "6:5"), "DAS" or "NDAS", "LS" (late surrender: the dealer peeks),
+	 * "ES10" (early surrender against a ten, late against an ace) or "NS",
+	 * and a maximum bet (e.g. "$500").
+	 * @param text the rules, e.g. "6D,H17,6:5,NS"
+	 * @return the rules
+	 */
+	static Rules parseRules(String text) {
+		Rules parsed = Rules.DEFAULT;
+		for (String rule : text.split(",")) {
+			rule = rule.trim().toUpperCase();
+			if (rule.equals("H17") || rule.equals("S17")) {
+				parsed = parsed.withDealerHitsSoft17(rule.equals("H17"));
+			} else if (rule.equals("DAS") || rule.equals("NDAS")) {
+				parsed = parsed.withDoubleAfterSplit(rule.equals("DAS"));
+			} else if (rule.equals("LS")) {
+				parsed = parsed.withSurrender(true).withDealerPeeks(true);
+			} else if (rule.equals("ES10")) {
+				parsed = parsed.withSurrender(true).withDealerPeeks(false);
+			} else if (rule.equals("NS")) {
+				parsed = parsed.withSurrender(false);
+			} else if (rule.endsWith("D")) {
+				parsed = parsed.withDecks(Integer.parseInt(
+						rule.substring(0, rule.length() - 1)));
+			} else if (rule.startsWith("$")) {
+				parsed = parsed.withBetLimits(parsed.minBet(),
+						Integer.parseInt(rule.substring(1)));
+			} else if (rule.indexOf(':') > 0) {
+				int colon = rule.indexOf(':');
+				parsed = parsed.withBlackjackPayout(
+						Integer.parseInt(rule.substring(0, colon)),
+						Integer.parseInt(rule.substring(colon + 1)));
+			} else {
+				throw new IllegalArgumentException("Unknown rule " + rule);
+			}
+		}
+		return parsed;
+	}
+
+	/**
+	 * Runs the simulation and prints a table of results.
+	 * @param args number of rounds (default 1000000), threads (default one
+	 *             per core), seed (default random), directory to record
+	 *             rounds in (default none, "-" for none), a port to serve
+	 *             metrics on or file to write them to (default none, "-" for
+	 *             none, but they are always registered with JMX), the
+	 *             deck to deal from, "shoe" (default), "infinite" or "csm",
+	 *             and the rules as changes to the default, see parseRules
+	 */
+	public static void main(String[] args) throws InterruptedException,
+			IOException, JMException {
+		long rounds = 1000000;
+		int threads = Runtime.getRuntime().availableProcessors();
+		if (args.length > 0)
+			rounds = Long.parseLong(args[0]);
+		if (args.length > 1)
+			threads = Integer.parseInt(args[1]);
+
+		MonteCarloRunner runner = new MonteCarloRunner(25, threads);
+		if (args.length > 2)
+			runner.setSeed(Long.parseLong(args[2]));
+		if (args.length > 3 && !args[3].equals("-"))
+			runner.setLogDirectory(Paths.get(args[3]));
+		TableMetrics metrics = new TableMetrics();
+		metrics.register("MonteCarloRunner");
+		if (args.length > 4 && !args[4].equals("-"))
+			metrics.export(args[4]);
+		if (args.length > 5) {
+			if (args[5].equals("infinite"))
+				runner.setDeckMode(Deck.INFINITE);
+			else if (args[5].equals("csm"))
+				runner.setDeckMode(Deck.CONTINUOUS);
+			else if (!args[5].equals("shoe"))
+				throw new IllegalArgumentException("Unknown deck " + args[5]);
+		}
+		if (args.length > 6)
+			runner.setRules(parseRules(args[6]));
+		runner.setMetrics(metrics);
+		long start = System.nanoTime();
+		ProfileResult[] results = runner.run(rounds);
+		double seconds = (System.nanoTime() - start) / 1e9;
+
+		System.out.printf("%d rounds on %d threads in %.2f s (%.0f rounds/s)%n",
+				rounds, threads, seconds, rounds / seconds);
+		System.out.println("Rules: " + runner.rules);
+		System.out.printf("%-26s %10s %10s %9s %7s %7s %7s%n", "Profile",
+				"EV/round", "+/- SE", "EV/wager", "Win", "Push", "Loss");
+		for (ProfileResult r : results) {
+			System.out.printf("%-26s %10.4f %10.4f %8.3f%% %6.2f%% %6.2f%% "
+					+ "%6.2f%%%n", r.getName(), r.getExpectedValue(),
+					r.getStandardError(), 100 * r.getReturnOnWagered(),
+					100 * r.getWinRate(), 100 * r.getPushRate(),
+					100 * r.getLossRate());
+		}
+		System.out.printf("%-26s %10s %12s %14s %14s%n", "Profile", "SD/round",
+				"N0 rounds", "Max drawdown", "Bankroll@5%RoR");
+		for (ProfileResult r : results) {
+			BankrollStats stats = r.getStats();
+			System.out.printf("%-26s %10.2f %12.4g %14d %14.4g%n", r.getName(),
+					stats.getStandardDeviation(), stats.getN0(),
+					stats.getMaxDrawdown(), stats.getBankrollFor(0.05));
+		}
+		metrics.close();
+	}
+}
@@ -0,0 +1,48 @@
+package base;
+
+import java.util.random.RandomGenerator.SplittableGenerator;
+import java.util.random.RandomGeneratorFactory;
+
+/**
+ * Makes the random number generators used by decks and computer players. They
+ * are all L64X128MixRandom generators, which are fast, statistically strong
+ * and can be split into independent streams.
+ * <p>
+ * Each deck and each computer player has a generator of its own, so nothing
+ * is shared between threads. To make a run reproducible, create a root
+ * generator from a seed and split the generator of every table and seat off
+ * it in a fixed order; the same seed then deals the same cards and makes the
+ * same decisions, which also lets strategies be compared on common random
+ * numbers.
+ *
+ * @author Vance Zuo
+ */
+public final class RandomStreams {
+
+	/** Name of the generator algorithm */
+	public static final String ALGORITHM = "L64X128MixRandom";
+
+	private static final RandomGeneratorFactory<SplittableGenerator> FACTORY =
+			RandomGeneratorFactory.of(ALGORITHM);
+
+	private RandomStreams() {
+	}
+
+	/**
+	 * Creates a generator with a fixed seed.
+	 * @param seed the seed
+	 * @return the generator
+	 */
+	public static SplittableGenerator create(long seed) {
+		return FACTORY.create(seed);
+	}
+
+	/**
+	 * Creates a generator with an unpredictable seed, for runs that need not
+	 * be reproduced.
+	 * @return the generator
+	 */
+	public static SplittableGenerator create() {
+		return FACTORY.create();
+	}
+}
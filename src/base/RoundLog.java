@@ -0,0 +1,239 @@
+package base;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Records every hand played at a table into a binary file, one fixed-width
+ * record per hand per round (a seat that split has several). Register it as
+ * a listener of the table:
+ *
+ * <pre>
+ * RoundLog log = new RoundLog(Paths.get("rounds.bin"));
+ * table.addListener(log);
+ * table.playRounds(1000000);
+ * log.close();
+ * </pre>
+ *
+ * The file is written append-only through memory-mapped regions, so writing a
+ * record is a few puts into memory and the operating system writes the pages
+ * out in the background. The file grows a region at a time and is cut back
+ * to its last record on close. Opening an existing log appends to it. Use a
+ * RoundLogReader to go through the records.
+ * <p>
+ * The file starts with a HEADER_SIZE byte header holding a magic number and
+ * the number of records, which is updated after every record. Each record is
+ * RECORD_SIZE bytes, little-endian:
+ *
+ * <pre>
+ * offset size
+ *      0    8  round number (TableEngine.getRound)
+ *      8    4  bet, including doubling down
+ *     12    4  money paid out, including the returned bet
+ *     16    8  decisions, 4 bits each (see Strategy), first in the low bits
+ *     24    1  seat index, in dealing order
+ *     25    1  outcome (see TableEngine)
+ *     26    1  Hi-Lo true count when the bets were made (Deck.getCount)
+ *     27    1  number of player cards
+ *     28    1  number of dealer cards
+ *     29    1  number of decisions
+ *     30   12  player cards (Card.getIndex)
+ *     42   12  dealer cards (Card.getIndex)
+ *     54    1  hand index of the seat, 0 unless split
+ * </pre>
+ *
+ * Only the first MAX_CARDS cards and MAX_DECISIONS decisions of a hand are
+ * kept, though the counts are exact. Decisions are recorded for every seat,
+ * human or computer, but insurance is not recorded.
+ *
+ * @author Vance Zuo
+ */
+public class RoundLog implements TableListener, Closeable {
+
+	/** Identifies a round log file */
+	public static final int MAGIC = 0x424A524C; // "BJRL"
+	/** Size of the file header in bytes */
+	public static final int HEADER_SIZE = 64;
+	/** Size of one record in bytes */
+	public static final int RECORD_SIZE = 64;
+	/** Number of cards kept per hand */
+	public static final int MAX_CARDS = 12;
+	/** Number of decisions kept per hand */
+	public static final int MAX_DECISIONS = 16;
+
+	// Header fields
+	static final int MAGIC_OFFSET = 0;
+	static final int RECORD_SIZE_OFFSET = 4;
+	static final int COUNT_OFFSET = 8;
+
+	// Record fields
+	static final int ROUND = 0;
+	static final int BET = 8;
+	static final int PAYOUT = 12;
+	static final int DECISIONS = 16;
+	static final int SEAT = 24;
+	static final int OUTCOME = 25;
+	static final int TRUE_COUNT = 26;
+	static final int NUM_CARDS = 27;
+	static final int NUM_DEALER_CARDS = 28;
+	static final int NUM_DECISIONS = 29;
+	static final int CARDS = 30;
+	static final int DEALER_CARDS = 42;
+	static final int HAND = 54;
+
+	// Records mapped at a time, so the file grows 4 MiB at a time
+	static final int REGION_RECORDS = 1 << 16;
+
+	private FileChannel channel;
+	private MappedByteBuffer header;
+	private MappedByteBuffer region;
+	private long count;
+
+	// State of the current round, by seat index * Seat.MAX_HANDS + hand
+	private TableEngine table;
+	private int trueCount;
+	private long[] decisions = new long[0];
+	private int[] numDecisions = new int[0];
+
+	/**
+	 * Opens a log, creating the file if it does not exist.
+	 * @param file the log file
+	 * @throws IOException if the file cannot be opened, or is not a log
+	 */
+	public RoundLog(Path file) throws IOException {
+		channel = FileChannel.open(file, StandardOpenOption.CREATE,
+				StandardOpenOption.READ, StandardOpenOption.WRITE);
+		boolean isNew = channel.size() == 0;
+		header = channel.map(MapMode.READ_WRITE, 0, HEADER_SIZE);
+		header.order(ByteOrder.LITTLE_ENDIAN);
+		if (isNew) {
+			header.putInt(MAGIC_OFFSET, MAGIC);
+			header.putInt(RECORD_SIZE_OFFSET, RECORD_SIZE);
+		} else if (header.getInt(MAGIC_OFFSET) != MAGIC
+				|| header.getInt(RECORD_SIZE_OFFSET) != RECORD_SIZE) {
+			channel.close();
+			throw new IOException(file + " is not a round log");
+		}
+		count = header.getLong(COUNT_OFFSET);
+		mapRegion();
+	}
+
+	/**
+	 * Maps the region of the file holding the next record.
+	 */
+	private void mapRegion() throws IOException {
+		long first = count / REGION_RECORDS * REGION_RECORDS;
+		region = channel.map(MapMode.READ_WRITE,
+				HEADER_SIZE + first * RECORD_SIZE,
+				(long) REGION_RECORDS * RECORD_SIZE);
+		region.order(ByteOrder.LITTLE_ENDIAN);
+		region.position((int) (count - first) * RECORD_SIZE);
+	}
+
+	/**
+	 * Gets the number of records in the log.
+	 * @return the number of records
+	 */
+	public long getCount() {
+		return count;
+	}
+
+	@Override
+	public void roundStarted(TableEngine roundTable) {
+		table = roundTable;
+		trueCount = table.getDeck().getCount();
+		int hands = table.getSeats().size() * Seat.MAX_HANDS;
+		if (decisions.length != hands) {
+			decisions = new long[hands];
+			numDecisions = new int[hands];
+		}
+		for (int i = 0; i < hands; i++) {
+			decisions[i] = 0;
+			numDecisions[i] = 0;
+		}
+	}
+
+	@Override
+	public void actionTaken(Seat player, int hand, int action) {
+		int first = table.getSeats().indexOf(player) * Seat.MAX_HANDS;
+		int i = first + hand;
+		int n = numDecisions[i]++;
+		if (n < MAX_DECISIONS)
+			decisions[i] |= (long) (action & 0xF) << (4 * n);
+		if (action == Strategy.SPLIT) { // the new hand shares the history
+			int split = first + player.getNumHands();
+			decisions[split] = decisions[i];
+			numDecisions[split] = numDecisions[i];
+		}
+	}
+
+	@Override
+	public void insuranceSettled(Seat player, int insureBet,
+			boolean dealerHasBlackJack) {
+	}
+
+	@Override
+	public void payoutMade(Seat player, int hand, int outcome, int amount) {
+		int seat = table.getSeats().indexOf(player);
+		int i = seat * Seat.MAX_HANDS + hand;
+		try {
+			if (!region.hasRemaining())
+				mapRegion();
+		} catch (IOException e) {
+			throw new IllegalStateException("Round log could not grow", e);
+		}
+		int base = region.position();
+		region.putLong(base + ROUND, table.getRound());
+		region.putInt(base + BET, player.getBet(hand));
+		region.putInt(base + PAYOUT, amount);
+		region.putLong(base + DECISIONS, decisions[i]);
+		region.put(base + SEAT, (byte) seat);
+		region.put(base + OUTCOME, (byte) outcome);
+		region.put(base + TRUE_COUNT, (byte) Math.max(Byte.MIN_VALUE,
+				Math.min(Byte.MAX_VALUE, trueCount)));
+		region.put(base + HAND, (byte) hand);
+		putCards(base + NUM_CARDS, base + CARDS, player.getHand(hand));
+		putCards(base + NUM_DEALER_CARDS, base + DEALER_CARDS,
+				table.getDealerHand());
+		region.put(base + NUM_DECISIONS,
+				(byte) Math.min(numDecisions[i], 255));
+		region.position(base + RECORD_SIZE);
+		header.putLong(COUNT_OFFSET, ++count);
+	}
+
+	/**
+	 * Writes the cards of a hand into the current record.
+	 */
+	private void putCards(int lengthAt, int cardsAt, Hand hand) {
+		int length = hand.length();
+		region.put(lengthAt, (byte) Math.min(length, 255));
+		for (int i = 0; i < MAX_CARDS; i++)
+			region.put(cardsAt + i,
+					(byte) (i < length ? hand.get(i).getIndex() : -1));
+	}
+
+	/**
+	 * Flushes the log to disk, cuts the file down to its records and closes
+	 * it.
+	 * @throws IOException if the file cannot be closed
+	 */
+	@Override
+	public void close() throws IOException {
+		region.force();
+		header.force();
+		try {
+			channel.truncate(HEADER_SIZE + count * RECORD_SIZE);
+		} catch (IOException e) {
+			// some systems cannot shrink a mapped file; the header count
+			// still tells where the records end
+		} finally {
+			channel.close();
+		}
+	}
+}
@@ -0,0 +1,199 @@
+package base;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Streams through the records of a RoundLog. The file is mapped a region at a
+ * time and every record is passed to a visitor through the same RoundRecord,
+ * so logs far larger than memory can be aggregated without making an object
+ * per record.
+ * <p>
+ * Usage: java base.RoundLogReader file...
+ *
+ * @author Vance Zuo
+ */
+public class RoundLogReader implements Closeable {
+
+	/**
+	 * Receives the records of a log one at a time.
+	 */
+	public interface RecordVisitor {
+		/**
+		 * Called for each record.
+		 * @param record view of the record, only valid during this call
+		 */
+		void visit(RoundRecord record);
+	}
+
+	private FileChannel channel;
+	private long count;
+
+	/**
+	 * Opens a log for reading.
+	 * @param file the log file
+	 * @throws IOException if the file cannot be opened, or is not a log
+	 */
+	public RoundLogReader(Path file) throws IOException {
+		channel = FileChannel.open(file, StandardOpenOption.READ);
+		if (channel.size() < RoundLog.HEADER_SIZE) {
+			channel.close();
+			throw new IOException(file + " is not a round log");
+		}
+		MappedByteBuffer header = channel.map(MapMode.READ_ONLY, 0,
+				RoundLog.HEADER_SIZE);
+		header.order(ByteOrder.LITTLE_ENDIAN);
+		if (header.getInt(RoundLog.MAGIC_OFFSET) != RoundLog.MAGIC
+				|| header.getInt(RoundLog.RECORD_SIZE_OFFSET)
+						!= RoundLog.RECORD_SIZE) {
+			channel.close();
+			throw new IOException(file + " is not a round log");
+		}
+		count = header.getLong(RoundLog.COUNT_OFFSET);
+	}
+
+	/**
+	 * Gets the number of records in the log.
+	 * @return the number of records
+	 */
+	public long getCount() {
+		return count;
+	}
+
+	/**
+	 * Passes every record, in order, to a visitor.
+	 * @param visitor the visitor
+	 * @throws IOException if the file cannot be read
+	 */
+	public void forEach(RecordVisitor visitor) throws IOException {
+		RoundRecord record = new RoundRecord();
+		for (long first = 0; first < count; first += RoundLog.REGION_RECORDS) {
+			int n = (int) Math.min(RoundLog.REGION_RECORDS, count - first);
+			MappedByteBuffer region = channel.map(MapMode.READ_ONLY,
+					RoundLog.HEADER_SIZE + first * RoundLog.RECORD_SIZE,
+					(long) n * RoundLog.RECORD_SIZE);
+			region.order(ByteOrder.LITTLE_ENDIAN);
+			for (int i = 0; i < n; i++) {
+				record.moveTo(region, i * RoundLog.RECORD_SIZE);
+				visitor.visit(record);
+			}
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+
+	/**
+	 * Money bet and won per seat and per true count, added up over any
+	 * number of logs.
+	 */
+	public static class Summary implements RecordVisitor {
+		/** Lowest true count kept apart, lower counts are added to it */
+		public static final int MIN_COUNT = -10;
+		/** Highest true count kept apart, higher counts are added to it */
+		public static final int MAX_COUNT = 10;
+
+		private static final int MAX_SEATS = 256;
+		private static final int NUM_COUNTS = MAX_COUNT - MIN_COUNT + 1;
+
+		private long[] seatHands = new long[MAX_SEATS];
+		private long[] seatWagered = new long[MAX_SEATS];
+		private long[] seatNet = new long[MAX_SEATS];
+		private long[] countHands = new long[NUM_COUNTS];
+		private long[] countWagered = new long[NUM_COUNTS];
+		private long[] countNet = new long[NUM_COUNTS];
+		private int numSeats;
+
+		@Override
+		public void visit(RoundRecord record) {
+			int seat = record.getSeat() & 0xFF;
+			int bet = record.getBet();
+			int net = record.getNet();
+			seatHands[seat]++;
+			seatWagered[seat] += bet;
+			seatNet[seat] += net;
+			if (seat >= numSeats)
+				numSeats = seat + 1;
+			int count = Math.max(MIN_COUNT,
+					Math.min(MAX_COUNT, record.getTrueCount()));
+			countHands[count - MIN_COUNT]++;
+			countWagered[count - MIN_COUNT] += bet;
+			countNet[count - MIN_COUNT] += net;
+		}
+
+		/** @return one more than the highest seat index seen */
+		public int getNumSeats() { return numSeats; }
+
+		/** @return hands played by a seat */
+		public long getHands(int seat) { return seatHands[seat]; }
+
+		/** @return money bet by a seat, including doubling down */
+		public long getWagered(int seat) { return seatWagered[seat]; }
+
+		/** @return money won by a seat, or lost if negative */
+		public long getNet(int seat) { return seatNet[seat]; }
+
+		/** @return hands played at a true count, over all seats */
+		public long getHandsAtCount(int count) {
+			return countHands[count - MIN_COUNT];
+		}
+
+		/** @return money bet at a true count, over all seats */
+		public long getWageredAtCount(int count) {
+			return countWagered[count - MIN_COUNT];
+		}
+
+		/** @return money won at a true count, over all seats */
+		public long getNetAtCount(int count) {
+			return countNet[count - MIN_COUNT];
+		}
+	}
+
+	/**
+	 * Prints the return of each seat and of each true count over some logs.
+	 * @param args the log files
+	 */
+	public static void main(String[] args) throws IOException {
+		Summary summary = new Summary();
+		long records = 0;
+		for (String arg : args) {
+			RoundLogReader reader = new RoundLogReader(Paths.get(arg));
+			try {
+				reader.forEach(summary);
+				records += reader.getCount();
+			} finally {
+				reader.close();
+			}
+		}
+		System.out.printf("%d records in %d files%n", records, args.length);
+		System.out.printf("%-6s %12s %14s %14s %9s%n", "Seat", "Hands",
+				"Wagered", "Net", "EV/wager");
+		for (int s = 0; s < summary.getNumSeats(); s++) {
+			if (summary.getHands(s) == 0)
+				continue;
+			System.out.printf("%-6d %12d %14d %14d %8.3f%%%n", s,
+					summary.getHands(s), summary.getWagered(s),
+					summary.getNet(s),
+					100.0 * summary.getNet(s) / summary.getWagered(s));
+		}
+		System.out.printf("%-6s %12s %14s %14s %9s%n", "Count", "Hands",
+				"Wagered", "Net", "EV/wager");
+		for (int c = Summary.MIN_COUNT; c <= Summary.MAX_COUNT; c++) {
+			if (summary.getHandsAtCount(c) == 0)
+				continue;
+			System.out.printf("%-6d %12d %14d %14d %8.3f%%%n", c,
+					summary.getHandsAtCount(c), summary.getWageredAtCount(c),
+					summary.getNetAtCount(c), 100.0 * summary.getNetAtCount(c)
+							/ summary.getWageredAtCount(c));
+		}
+	}
+}
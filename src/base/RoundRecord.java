@@ -0,0 +1,115 @@
+package base;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A view of one record of a RoundLog. A RoundLogReader moves a single
+ * RoundRecord from record to record, so the getters read straight from the
+ * mapped file and no objects are made per record. Don't keep a record after
+ * the visitor it was passed to returns.
+ *
+ * @author Vance Zuo
+ */
+public final class RoundRecord {
+
+	private ByteBuffer buffer;
+	private int base;
+
+	RoundRecord() {
+	}
+
+	/**
+	 * Points this view at a record.
+	 * @param records buffer holding the record
+	 * @param offset offset of the record in the buffer
+	 */
+	void moveTo(ByteBuffer records, int offset) {
+		buffer = records;
+		base = offset;
+	}
+
+	/** @return number of the round, see TableEngine.getRound */
+	public long getRound() { return buffer.getLong(base + RoundLog.ROUND); }
+
+	/** @return the bet, including doubling down */
+	public int getBet() { return buffer.getInt(base + RoundLog.BET); }
+
+	/** @return money paid out, including the returned bet */
+	public int getPayout() { return buffer.getInt(base + RoundLog.PAYOUT); }
+
+	/** @return money won, or lost if negative */
+	public int getNet() { return getPayout() - getBet(); }
+
+	/** @return index of the seat, in dealing order */
+	public int getSeat() { return buffer.get(base + RoundLog.SEAT); }
+
+	/** @return index of the seat's hand, 0 unless the seat split */
+	public int getHand() { return buffer.get(base + RoundLog.HAND); }
+
+	/** @return outcome of the hand, see TableEngine */
+	public int getOutcome() { return buffer.get(base + RoundLog.OUTCOME); }
+
+	/** @return Hi-Lo true count when the bets were made */
+	public int getTrueCount() {
+		return buffer.get(base + RoundLog.TRUE_COUNT);
+	}
+
+	/** @return number of cards in the player's hand */
+	public int getNumCards() {
+		return buffer.get(base + RoundLog.NUM_CARDS) & 0xFF;
+	}
+
+	/**
+	 * Gets a card of the player's hand.
+	 * @param i index of the card, less than both getNumCards() and
+	 *          RoundLog.MAX_CARDS
+	 * @return the card
+	 * @throws IndexOutOfBoundsException if the card is not recorded
+	 */
+	public Card getCard(int i) {
+		checkCard(i, getNumCards());
+		return Card.get(buffer.get(base + RoundLog.CARDS + i));
+	}
+
+	/** @return number of cards in the dealer's hand */
+	public int getNumDealerCards() {
+		return buffer.get(base + RoundLog.NUM_DEALER_CARDS) & 0xFF;
+	}
+
+	/**
+	 * Gets a card of the dealer's hand.
+	 * @param i index of the card, less than both getNumDealerCards() and
+	 *          RoundLog.MAX_CARDS
+	 * @return the card
+	 * @throws IndexOutOfBoundsException if the card is not recorded
+	 */
+	public Card getDealerCard(int i) {
+		checkCard(i, getNumDealerCards());
+		return Card.get(buffer.get(base + RoundLog.DEALER_CARDS + i));
+	}
+
+	/**
+	 * Checks that a card was recorded, as unused card slots hold -1.
+	 */
+	private static void checkCard(int i, int numCards) {
+		if (i < 0 || i >= numCards || i >= RoundLog.MAX_CARDS)
+			throw new IndexOutOfBoundsException("Card " + i + " of "
+					+ Math.min(numCards, RoundLog.MAX_CARDS)
+					+ " recorded");
+	}
+
+	/** @return number of decisions made by the player */
+	public int getNumDecisions() {
+		return buffer.get(base + RoundLog.NUM_DECISIONS) & 0xFF;
+	}
+
+	/**
+	 * Gets a decision made by the player.
+	 * @param i index of the decision, less than RoundLog.MAX_DECISIONS
+	 * @return the action, see Strategy
+	 */
+	public int getDecision(int i) {
+		long decisions = buffer.getLong(base + RoundLog.DECISIONS);
+		return (int) (decisions >>> (4 * i)) & 0xF;
+	}
+}
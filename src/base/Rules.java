@@ -0,0 +1,307 @@
+package base;
+
+/**
+ * A set of table rules that vary between casinos. Rules are immutable; the
+ * with methods return a copy with one rule changed, e.g.
+ * <pre>
+ * Rules.DEFAULT.withDealerHitsSoft17(true).withSurrender(false)
+ * </pre>
+ * A TableEngine copies the rules it is given into fields of its own when it
+ * is made, so the rules cannot change while a table plays.
+ *
+ * @author Vance Zuo
+ */
+public final class Rules {
+
+	/**
+	 * The rules of the game as it is played by default: eight decks, the
+	 * dealer stands on soft 17 and does not check for Blackjack before the
+	 * players act, Blackjack pays 3:2, surrender is allowed, and so is
+	 * doubling after a split. Pairs may be split up to four hands, but split
+	 * aces get one card each and cannot be resplit. Bets are at least $25,
+	 * with no maximum.
+	 */
+	public static final Rules DEFAULT = new Rules(false, true, true, false,
+			Seat.MAX_HANDS, false, false, 8, 3, 2, 25, Integer.MAX_VALUE);
+
+	private final boolean dealerHitsSoft17;
+	private final boolean doubleAfterSplit;
+	private final boolean surrender;
+	private final boolean dealerPeeks;
+	private final int maxHands;
+	private final boolean resplitAces;
+	private final boolean hitSplitAces;
+	private final int decks;
+	private final int blackjackNumerator;
+	private final int blackjackDenominator;
+	private final int minBet;
+	private final int maxBet;
+
+	/**
+	 * Creates a rule set. Use DEFAULT and the with methods instead.
+	 */
+	private Rules(boolean hitSoft17, boolean das, boolean canSurrender,
+			boolean peeks, int hands, boolean rsa, boolean hsa, int numDecks,
+			int bjNumerator, int bjDenominator, int min, int max) {
+		dealerHitsSoft17 = hitSoft17;
+		doubleAfterSplit = das;
+		surrender = canSurrender;
+		dealerPeeks = peeks;
+		maxHands = hands;
+		resplitAces = rsa;
+		hitSplitAces = hsa;
+		decks = numDecks;
+		blackjackNumerator = bjNumerator;
+		blackjackDenominator = bjDenominator;
+		minBet = min;
+		maxBet = max;
+	}
+
+	/**
+	 * Tells whether the dealer hits a soft 17 (H17) instead of standing (S17)
+	 * @return true for H17
+	 */
+	public boolean dealerHitsSoft17() {
+		return dealerHitsSoft17;
+	}
+
+	/**
+	 * Tells whether a hand may be doubled after a split
+	 * @return true if doubling after splitting is allowed
+	 */
+	public boolean doubleAfterSplit() {
+		return doubleAfterSplit;
+	}
+
+	/**
+	 * Tells whether a player may surrender his first two cards
+	 * @return true if surrender is allowed
+	 */
+	public boolean surrender() {
+		return surrender;
+	}
+
+	/**
+	 * Tells whether the dealer checks for Blackjack before the players act
+	 * when showing an ace or a ten. If so, surrender is late surrender and
+	 * doubled or split bets are only lost to a dealer Blackjack once. If not,
+	 * surrender is early against a ten but still late against an ace, as an
+	 * ace is always checked at insurance.
+	 * @return true if the dealer peeks
+	 */
+	public boolean dealerPeeks() {
+		return dealerPeeks;
+	}
+
+	/**
+	 * Gets the most hands a player may split into
+	 * @return the number of hands, 1 if splitting is not allowed
+	 */
+	public int maxHands() {
+		return maxHands;
+	}
+
+	/**
+	 * Tells whether split aces may be split again if dealt another ace
+	 * @return true if aces may be resplit
+	 */
+	public boolean resplitAces() {
+		return resplitAces;
+	}
+
+	/**
+	 * Tells whether split aces may be hit, instead of getting one card each
+	 * @return true if split aces may be hit
+	 */
+	public boolean hitSplitAces() {
+		return hitSplitAces;
+	}
+
+	/**
+	 * Gets the number of decks in the shoe
+	 * @return the number of decks
+	 */
+	public int decks() {
+		return decks;
+	}
+
+	/**
+	 * Gets how much a Blackjack pays per bet, as a fraction: 3 and 2 for
+	 * 3:2, 6 and 5 for 6:5
+	 * @return the numerator of the payout
+	 */
+	public int blackjackNumerator() {
+		return blackjackNumerator;
+	}
+
+	/**
+	 * Gets the denominator of the Blackjack payout, see blackjackNumerator
+	 * @return the denominator of the payout
+	 */
+	public int blackjackDenominator() {
+		return blackjackDenominator;
+	}
+
+	/**
+	 * Gets the smallest bet allowed
+	 * @return the minimum bet
+	 */
+	public int minBet() {
+		return minBet;
+	}
+
+	/**
+	 * Gets the largest bet allowed
+	 * @return the maximum bet
+	 */
+	public int maxBet() {
+		return maxBet;
+	}
+
+	/**
+	 * @param hitSoft17 whether the dealer hits a soft 17
+	 * @return a copy of these rules with that rule changed
+	 */
+	public Rules withDealerHitsSoft17(boolean hitSoft17) {
+		return new Rules(hitSoft17, doubleAfterSplit, surrender, dealerPeeks,
+				maxHands, resplitAces, hitSplitAces, decks, blackjackNumerator,
+				blackjackDenominator, minBet, maxBet);
+	}
+
+	/**
+	 * @param das whether doubling after a split is allowed
+	 * @return a copy of these rules with that rule changed
+	 */
+	public Rules withDoubleAfterSplit(boolean das) {
+		return new Rules(dealerHitsSoft17, das, surrender, dealerPeeks,
+				maxHands, resplitAces, hitSplitAces, decks, blackjackNumerator,
+				blackjackDenominator, minBet, maxBet);
+	}
+
+	/**
+	 * @param canSurrender whether surrender is allowed
+	 * @return a copy of these rules with that rule changed
+	 */
+	public Rules withSurrender(boolean canSurrender) {
+		return new Rules(dealerHitsSoft17, doubleAfterSplit, canSurrender,
+				dealerPeeks, maxHands, resplitAces, hitSplitAces, decks,
+				blackjackNumerator, blackjackDenominator, minBet, maxBet);
+	}
+
+	/**
+	 * @param peeks whether the dealer checks for Blackjack first
+	 * @return a copy of these rules with that rule changed
+	 */
+	public Rules withDealerPeeks(boolean peeks) {
+		return new Rules(dealerHitsSoft17, doubleAfterSplit, surrender, peeks,
+				maxHands, resplitAces, hitSplitAces, decks, blackjackNumerator,
+				blackjackDenominator, minBet, maxBet);
+	}
+
+	/**
+	 * @param hands the most hands a player may split into, from 1 (no
+	 *              splitting) to Seat.MAX_HANDS
+	 * @return a copy of these rules with that rule changed
+	 */
+	public Rules withMaxHands(int hands) {
+		if (hands < 1 || hands > Seat.MAX_HANDS)
+			throw new IllegalArgumentException("hands must be from 1 to "
+					+ Seat.MAX_HANDS);
+		return new Rules(dealerHitsSoft17, doubleAfterSplit, surrender,
+				dealerPeeks, hands, resplitAces, hitSplitAces, decks,
+				blackjackNumerator, blackjackDenominator, minBet, maxBet);
+	}
+
+	/**
+	 * @param rsa whether split aces may be resplit
+	 * @return a copy of these rules with that rule changed
+	 */
+	public Rules withResplitAces(boolean rsa) {
+		return new Rules(dealerHitsSoft17, doubleAfterSplit, surrender,
+				dealerPeeks, maxHands, rsa, hitSplitAces, decks,
+				blackjackNumerator, blackjackDenominator, minBet, maxBet);
+	}
+
+	/**
+	 * @param hsa whether split aces may be hit
+	 * @return a copy of these rules with that rule changed
+	 */
+	public Rules withHitSplitAces(boolean hsa) {
+		return new Rules(dealerHitsSoft17, doubleAfterSplit, surrender,
+				dealerPeeks, maxHands, resplitAces, hsa, decks,
+				blackjackNumerator, blackjackDenominator, minBet, maxBet);
+	}
+
+	/**
+	 * @param numDecks the number of decks in the shoe, at least 1
+	 * @return a copy of these rules with that rule changed
+	 */
+	public Rules withDecks(int numDecks) {
+		if (numDecks < 1)
+			throw new IllegalArgumentException("numDecks must be positive");
+		return new Rules(dealerHitsSoft17, doubleAfterSplit, surrender,
+				dealerPeeks, maxHands, resplitAces, hitSplitAces, numDecks,
+				blackjackNumerator, blackjackDenominator, minBet, maxBet);
+	}
+
+	/**
+	 * @param numerator what a Blackjack pays per denominator bet, e.g. 3
+	 * @param denominator e.g. 2, for 3:2
+	 * @return a copy of these rules with that rule changed
+	 */
+	public Rules withBlackjackPayout(int numerator, int denominator) {
+		if (numerator < 0 || denominator < 1)
+			throw new IllegalArgumentException("Invalid payout " + numerator
+					+ ":" + denominator);
+		return new Rules(dealerHitsSoft17, doubleAfterSplit, surrender,
+				dealerPeeks, maxHands, resplitAces, hitSplitAces, decks,
+				numerator, denominator, minBet, maxBet);
+	}
+
+	/**
+	 * @param min the smallest bet allowed, at least 1
+	 * @param max the largest bet allowed, at least min
+	 * @return a copy of these rules with that rule changed
+	 */
+	public Rules withBetLimits(int min, int max) {
+		if (min < 1 || max < min)
+			throw new IllegalArgumentException("Invalid bet limits " + min
+					+ " to " + max);
+		return new Rules(dealerHitsSoft17, doubleAfterSplit, surrender,
+				dealerPeeks, maxHands, resplitAces, hitSplitAces, decks,
+				blackjackNumerator, blackjackDenominator, min, max);
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (!(o instanceof Rules))
+			return false;
+		Rules r = (Rules) o;
+		return dealerHitsSoft17 == r.dealerHitsSoft17
+				&& doubleAfterSplit == r.doubleAfterSplit
+				&& surrender == r.surrender && dealerPeeks == r.dealerPeeks
+				&& maxHands == r.maxHands && resplitAces == r.resplitAces
+				&& hitSplitAces == r.hitSplitAces && decks == r.decks
+				&& blackjackNumerator == r.blackjackNumerator
+				&& blackjackDenominator == r.blackjackDenominator
+				&& minBet == r.minBet && maxBet == r.maxBet;
+	}
+
+	@Override
+	public int hashCode() {
+		return toString().hashCode();
+	}
+
+	@Override
+	public String toString() {
+		return decks + "D " + (dealerHitsSoft17 ? "H17" : "S17")
+				+ (doubleAfterSplit ? " DAS" : " NDAS")
+				+ (surrender ? (dealerPeeks ? " LS" : " ES10") : " NS")
+				+ (dealerPeeks ? " peek" : " no-peek")
+				+ (maxHands > 1 ? " SP" + maxHands : " NSP")
+				+ (resplitAces ? " RSA" : "") + (hitSplitAces ? " HSA" : "")
+				+ " BJ" + blackjackNumerator + ":" + blackjackDenominator
+				+ " $" + minBet + "-"
+				+ (maxBet == Integer.MAX_VALUE ? "" : "$" + maxBet);
+	}
+}
@@ -0,0 +1,294 @@
+package base;
+
+/**
+ * A seat at a blackjack table. It keeps track of the player's name, remaining
+ * cash, bets and hands, and does the bookkeeping for bets, doubling down,
+ * splitting and winnings. The decisions are made by the seat's Strategy, so
+ * the same TableEngine can run computer seats headless or human seats behind
+ * a GUI.
+ * <p>
+ * A pair may be split into up to MAX_HANDS hands, each with a bet of its own.
+ * The seat keeps MAX_HANDS Hand objects which are reused every round, so
+ * dealing and splitting do not create new hands.
+ * <p>
+ * Each seat also keeps BankrollStats of what it won each round, updated when
+ * the round is settled.
+ * <p>
+ * Note that players still bet "on credit" after going under.
+ *
+ * @author Vance Zuo
+ */
+public final class Seat {
+
+	/** Constant representing a win */
+	public static final int WIN = 1;
+	/** Constant representing a draw */
+	public static final int PUSH = 0;
+	/** Constant representing a loss */
+	public static final int LOSS = -1;
+
+	/** Most hands a seat can split into */
+	public static final int MAX_HANDS = 4;
+
+	private String name;
+	private Strategy strategy;
+	private int money;
+	private int bet; // initial bet of the round
+	private int minBet;
+	private Hand[] hands = new Hand[MAX_HANDS];
+	private int[] bets = new int[MAX_HANDS]; // bet on each hand
+	private int numHands;
+	private int insured;
+	private int winnings; // money won back this round
+	private int previousOutcome;
+	private BankrollStats stats = new BankrollStats();
+
+	/**
+	 * Creates a seat with no hand and no bet.
+	 * @param pName name of the player
+	 * @param pStrategy decides how the seat plays
+	 * @param startMoney the starting amount of money player has
+	 * @param minimumBet the minimum the player is allowed to bet
+	 */
+	public Seat(String pName, Strategy pStrategy, int startMoney,
+			int minimumBet) {
+		name = pName;
+		strategy = pStrategy;
+		money = startMoney;
+		minBet = minimumBet;
+		bet = 0;
+		for (int i = 0; i < MAX_HANDS; i++)
+			hands[i] = new Hand();
+		numHands = 0;
+		previousOutcome = PUSH;
+	}
+
+	/**
+	 * Tells whether the seat is played by a person.
+	 * @return true if the seat's strategy is human
+	 */
+	public boolean isHuman() {
+		return strategy.isHuman();
+	}
+
+	/**
+	 * Gets the betting amount from the strategy. The bet is automatically
+	 * subtracted from the players total money.
+	 * @param deck the table's deck
+	 * @return amount to bet
+	 */
+	public int askBet(Deck deck) {
+		return askBet(deck, 0, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Gets the betting amount from the strategy, raised or lowered to the
+	 * table's limits. The bet is automatically subtracted from the players
+	 * total money. A bet of 0 sits the round out, and is not raised.
+	 * @param deck the table's deck
+	 * @param min the table's minimum bet
+	 * @param max the table's maximum bet
+	 * @return amount to bet
+	 */
+	public int askBet(Deck deck, int min, int max) {
+		int normalBet = strategy.bet(this, deck);
+		if (normalBet <= 0)
+			normalBet = 0;
+		else if (normalBet < min)
+			normalBet = min;
+		else if (normalBet > max)
+			normalBet = max;
+		money -= normalBet;
+		bet = normalBet;
+		numHands = 0;
+		insured = 0;
+		winnings = 0;
+		return normalBet;
+	}
+
+	/**
+	 * Gets the betting amount from the strategy for insurance. The bet is
+	 * automatically subtracted from the players total money.
+	 * @param deck the table's deck
+	 * @return amount to bet
+	 */
+	public int askInsurance(Deck deck) {
+		int insureBet = strategy.insurance(this, deck);
+		if (insureBet < 0)
+			insureBet = 0;
+		money -= insureBet;
+		insured = insureBet;
+		return insureBet;
+	}
+
+	/**
+	 * Asks the strategy how to play one of the seat's hands.
+	 * @param hand index of the hand
+	 * @param dealerCard the dealer's visible card
+	 * @param allowed optional actions that are allowed, see Strategy
+	 * @return the action, see Strategy
+	 */
+	public int askAction(int hand, Card dealerCard, int allowed) {
+		return strategy.play(this, hands[hand], dealerCard, allowed);
+	}
+
+	/**
+	 * Doubles the bet on a hand, taking the extra from the player's money.
+	 * @param hand index of the hand
+	 */
+	public void doubleDown(int hand) {
+		money -= bets[hand];
+		bets[hand] *= 2;
+	}
+
+	/**
+	 * Splits a pair into two hands, each with one of the cards, taking the
+	 * bet of the new hand from the player's money. Both hands then need a
+	 * second card.
+	 * @param hand index of the hand holding the pair
+	 * @return index of the new hand
+	 */
+	public int split(int hand) {
+		if (numHands == MAX_HANDS)
+			throw new IllegalStateException("No more hands to split into");
+		hands[numHands].startSplit(hands[hand].splitOff());
+		bets[numHands] = bets[hand];
+		money -= bets[hand];
+		return numHands++;
+	}
+
+	/**
+	 * Adds to player's total money amount moneyWon. The outcome is worked out
+	 * from everything won back this round against everything bet.
+	 * @param moneyWon amount of money to add
+	 */
+	public void addWinnings(int moneyWon) {
+		money += moneyWon;
+		winnings += moneyWon;
+		int staked = getCurrentBet() + insured;
+		if (winnings > staked)
+			previousOutcome = WIN;
+		else if (winnings == staked)
+			previousOutcome = PUSH;
+		else
+			previousOutcome = LOSS;
+	}
+
+	/**
+	 * Records the round in the seat's stats, once every hand has been paid.
+	 * A round sat out is not recorded, so the stats are per round played.
+	 */
+	public void endRound() {
+		if (numHands == 0)
+			return;
+		int staked = getCurrentBet() + insured;
+		stats.add(winnings - staked, getCurrentBet());
+	}
+
+	/**
+	 * Gets the statistics of the money won each round so far.
+	 * @return the stats, updated by endRound
+	 */
+	public BankrollStats getStats() {
+		return stats;
+	}
+
+	/**
+	 * Deals the first hand of the round, with Card c1 and Card c2
+	 * @param c1 First card to be added
+	 * @param c2 Second card to be added
+	 */
+	public void startHand(Card c1, Card c2) {
+		hands[0].deal(c1, c2);
+		bets[0] = bet;
+		numHands = 1;
+	}
+
+	/**
+	 * Returns the first hand of the player.
+	 * @return player's first hand, empty before the first deal
+	 */
+	public Hand getHand() {
+		return hands[0];
+	}
+
+	/**
+	 * Returns one of the hands of the player.
+	 * @param hand index of the hand, less than getNumHands()
+	 * @return the hand
+	 */
+	public Hand getHand(int hand) {
+		return hands[hand];
+	}
+
+	/**
+	 * Gets the number of hands played this round, more than one after a
+	 * split.
+	 * @return number of hands
+	 */
+	public int getNumHands() {
+		return numHands;
+	}
+
+	/**
+	 * Gets the bet on one of the hands.
+	 * @param hand index of the hand
+	 * @return the bet, including doubling down
+	 */
+	public int getBet(int hand) {
+		return bets[hand];
+	}
+
+	/**
+	 * Gets the name of the player.
+	 * @return player's name
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Gets the strategy playing this seat.
+	 * @return the strategy
+	 */
+	public Strategy getStrategy() {
+		return strategy;
+	}
+
+	/**
+	 * Gets the current betting amount of player, over all his hands.
+	 * @return player's current bet, including doubling down and splits
+	 */
+	public int getCurrentBet() {
+		if (numHands == 0)
+			return bet;
+		int total = 0;
+		for (int i = 0; i < numHands; i++)
+			total += bets[i];
+		return total;
+	}
+
+	/**
+	 * Gets the amount of money player has left.
+	 * @return player's remaining cash
+	 */
+	public int getMoney() {
+		return money;
+	}
+
+	/**
+	 * Gets the minimum the player is allowed to bet.
+	 * @return the minimum bet
+	 */
+	public int getMinBet() {
+		return minBet;
+	}
+
+	/**
+	 * Gets the outcome of the last winnings added to the player.
+	 * @return WIN, PUSH or LOSS
+	 */
+	public int getPreviousOutcome() {
+		return previousOutcome;
+	}
+}
@@ -0,0 +1,66 @@
+package base;
+
+/**
+ * Decides how a Seat plays: how much to bet, whether to take insurance and how
+ * to play each hand. A strategy may keep state between rounds (e.g. its last
+ * bet), so each seat should have its own instance.
+ *
+ * @author Vance Zuo
+ */
+public interface Strategy {
+
+	/** Action constant: no decision, which the engine takes as standing */
+	public static final int NO_ACTION = -1;
+	/** Action constant: stand */
+	public static final int STAND = 0;
+	/** Action constant: hit */
+	public static final int HIT = 1;
+	/** Action constant: surrender */
+	public static final int SURRENDER = 2;
+	/** Action constant: double down */
+	public static final int DOUBLE = 3;
+	/** Action constant: split a pair */
+	public static final int SPLIT = 4;
+
+	/** Allowed action flag: the hand may be doubled */
+	public static final int ALLOW_DOUBLE = 1 << DOUBLE;
+	/** Allowed action flag: the hand may be surrendered */
+	public static final int ALLOW_SURRENDER = 1 << SURRENDER;
+	/** Allowed action flag: the hand may be split */
+	public static final int ALLOW_SPLIT = 1 << SPLIT;
+
+	/**
+	 * Decides how much to bet this round.
+	 * @param seat the seat betting
+	 * @param deck the table's deck, for counting
+	 * @return amount to bet, or 0 to sit the round out
+	 */
+	int bet(Seat seat, Deck deck);
+
+	/**
+	 * Decides how much to put up for insurance against a dealer Blackjack.
+	 * @param seat the seat being asked, with its bet placed
+	 * @param deck the table's deck, for counting
+	 * @return amount to insure, 0 for none
+	 */
+	int insurance(Seat seat, Deck deck);
+
+	/**
+	 * Decides how to play a hand. Human strategies may block here until the
+	 * person has decided.
+	 * @param seat the seat playing
+	 * @param hand the hand to play
+	 * @param dealerCard the dealer's visible card
+	 * @param allowed which of ALLOW_DOUBLE, ALLOW_SURRENDER and ALLOW_SPLIT
+	 *                are allowed; standing and hitting always are
+	 * @return STAND, HIT, SURRENDER, DOUBLE, SPLIT or NO_ACTION
+	 */
+	int play(Seat seat, Hand hand, Card dealerCard, int allowed);
+
+	/**
+	 * Tells whether the decisions are made by a person, so a GUI can show
+	 * the seat differently and tell the person how his hands went.
+	 * @return true if the strategy is human
+	 */
+	boolean isHuman();
+}
@@ -0,0 +1,585 @@
+package base;
+
+import java.util.ArrayList;
+
+/**
+ * Runs rounds of Blackjack between a dealer and a number of players, without
+ * any GUI involvement. A round goes through the phases askBets, deal,
+ * insurance, doPlayerTurns, doDealerTurn, doPayOuts and reset, which can
+ * either be called one by one (e.g. to show the table in between) or all at
+ * once with playRound. Each seat's Strategy is asked how to play its hands,
+ * so a human strategy simply blocks until the human has decided.
+ * <p>
+ * The table plays by a set of Rules, fixed when it is made: whether the
+ * dealer hits soft 17, what Blackjack pays, doubling, surrender, splitting,
+ * the number of decks and the bet limits. Insurance pays 2:1. Pairs can be
+ * split and resplit as the rules allow; a split hand gets its second card
+ * when it is played.
+ * <p>
+ * The rules are copied into final fields, most of them worked out ahead
+ * (e.g. the optional actions of a hand as a ready-made mask), so the code
+ * run every round does not look up each option on every hand.
+ *
+ * @author Vance Zuo
+ */
+public class TableEngine {
+
+	/** Outcome: both the player and the dealer have Blackjack */
+	public static final int BOTH_BLACKJACK = 0;
+	/** Outcome: the player has Blackjack */
+	public static final int PLAYER_BLACKJACK = 1;
+	/** Outcome: the dealer has Blackjack */
+	public static final int DEALER_BLACKJACK = 2;
+	/** Outcome: the player has busted */
+	public static final int PLAYER_BUSTED = 3;
+	/** Outcome: the dealer has busted */
+	public static final int DEALER_BUSTED = 4;
+	/** Outcome: the player's hand is higher */
+	public static final int PLAYER_WINS = 5;
+	/** Outcome: the hands are equal */
+	public static final int PUSH = 6;
+	/** Outcome: the dealer's hand is higher */
+	public static final int DEALER_WINS = 7;
+	/** Outcome: the player surrendered half his bet */
+	public static final int SURRENDERED = 8;
+
+	private final Deck deck;
+	private final Rules rules;
+	private final int minBet;
+	private final int maxBet;
+	private final int dealerStandsSoft; // lowest soft total he stands on
+	private final int blackjackNumerator;
+	private final int blackjackDenominator;
+	private final boolean dealerPeeks;
+	private final int firstOptions; // allowed unsplit, if affordable
+	private final int splitOptions; // allowed on a split hand, if affordable
+	private final int maxHands;
+	private final boolean resplitAces;
+	private final boolean hitSplitAces;
+	private Hand dealerHand = new Hand();
+	private int timingInterval; // 0 if decisions are not timed
+	private int untilTimed; // decisions left before the next timed one
+	private long round;
+	private ArrayList<Seat> players = new ArrayList<Seat>();
+	private ArrayList<TableListener> listeners = new ArrayList<TableListener>();
+
+	/**
+	 * Creates a table with no players, playing by the default rules.
+	 * @param tableDeck the deck shoe to deal from
+	 * @param minimumBet minimum bet of the table
+	 */
+	public TableEngine(Deck tableDeck, int minimumBet) {
+		this(tableDeck, minimumBet, Rules.DEFAULT);
+	}
+
+	/**
+	 * Creates a table with no players, with the minimum bet given apart from
+	 * the rules.
+	 * @param tableDeck the deck shoe to deal from
+	 * @param minimumBet minimum bet of the table
+	 * @param tableRules the other rules of the table
+	 */
+	public TableEngine(Deck tableDeck, int minimumBet, Rules tableRules) {
+		this(tableDeck, tableRules.withBetLimits(minimumBet,
+				Math.max(minimumBet, tableRules.maxBet())));
+	}
+
+	/**
+	 * Creates a table with no players.
+	 * @param tableDeck the deck shoe to deal from, with as many decks as the
+	 *                  rules say
+	 * @param tableRules the rules of the table
+	 */
+	public TableEngine(Deck tableDeck, Rules tableRules) {
+		if (tableDeck.getNumDecks() != tableRules.decks())
+			throw new IllegalArgumentException("The deck has "
+					+ tableDeck.getNumDecks() + " decks, the rules say "
+					+ tableRules.decks());
+		deck = tableDeck;
+		rules = tableRules;
+		minBet = rules.minBet();
+		maxBet = rules.maxBet();
+		dealerStandsSoft = rules.dealerHitsSoft17() ? 18 : 17;
+		blackjackNumerator = rules.blackjackNumerator();
+		blackjackDenominator = rules.blackjackDenominator();
+		dealerPeeks = rules.dealerPeeks();
+		firstOptions = Strategy.ALLOW_DOUBLE
+				| (rules.surrender() ? Strategy.ALLOW_SURRENDER : 0);
+		splitOptions = rules.doubleAfterSplit() ? Strategy.ALLOW_DOUBLE : 0;
+		maxHands = rules.maxHands();
+		resplitAces = rules.resplitAces();
+		hitSplitAces = rules.hitSplitAces();
+	}
+
+	/**
+	 * Adds a seat to the table. Seats are dealt to in the order they are
+	 * added.
+	 * @param seat the seat to add
+	 */
+	public void addSeat(Seat seat) {
+		players.add(seat);
+	}
+
+	/**
+	 * Registers a listener to be told about settled bets.
+	 * @param listener the listener to add
+	 */
+	public void addListener(TableListener listener) {
+		listeners.add(listener);
+	}
+
+	/**
+	 * Unregisters a listener.
+	 * @param listener the listener to remove
+	 */
+	public void removeListener(TableListener listener) {
+		listeners.remove(listener);
+	}
+
+	/**
+	 * Gets the seats at the table.
+	 * @return the seats, in dealing order
+	 */
+	public ArrayList<Seat> getSeats() {
+		return players;
+	}
+
+	/**
+	 * Gets the deck shoe of the table.
+	 * @return the deck
+	 */
+	public Deck getDeck() {
+		return deck;
+	}
+
+	/**
+	 * Gets the minimum bet of the table.
+	 * @return the minimum bet
+	 */
+	public int getMinBet() {
+		return minBet;
+	}
+
+	/**
+	 * Gets the maximum bet of the table.
+	 * @return the maximum bet
+	 */
+	public int getMaxBet() {
+		return maxBet;
+	}
+
+	/**
+	 * Gets the rules of the table.
+	 * @return the rules
+	 */
+	public Rules getRules() {
+		return rules;
+	}
+
+	/**
+	 * Returns the hand of the dealer.
+	 * @return dealer's hand, empty before the first deal
+	 */
+	public Hand getDealerHand() {
+		return dealerHand;
+	}
+
+	/**
+	 * Gets the number of the current round, counting from 0.
+	 * @return rounds finished so far
+	 */
+	public long getRound() {
+		return round;
+	}
+
+	/**
+	 * Plays a complete round.
+	 */
+	public void playRound() {
+		askBets();
+		deal();
+		insurance();
+		doPlayerTurns();
+		doDealerTurn();
+		doPayOuts();
+		reset();
+	}
+
+	/**
+	 * Plays a number of complete rounds.
+	 * @param rounds how many rounds to play
+	 */
+	public void playRounds(int rounds) {
+		for (int i = 0; i < rounds; i++)
+			playRound();
+	}
+
+	/**
+	 * Asks for bets from players, within the table's limits
+	 */
+	public void askBets() {
+		for (int i = 0; i < listeners.size(); i++)
+			listeners.get(i).roundStarted(this);
+		for (int i = 0; i < players.size(); i++)
+			players.get(i).askBet(deck, minBet, maxBet);
+	}
+
+	/**
+	 * Deals out cards to the dealer and players. The dealer's second card is
+	 * dealt face down. Players who bet nothing sit the round out.
+	 */
+	public void deal() {
+		Card c1 = deck.draw();
+		Card c2 = deck.draw();
+		dealerHand.deal(c1, c2);
+		dealerHand.flip(1);
+		for (int i = 0; i < players.size(); i++) {
+			Seat player = players.get(i);
+			if (player.getCurrentBet() == 0)
+				continue;
+			c1 = deck.draw();
+			c2 = deck.draw();
+			player.startHand(c1, c2);
+		}
+	}
+
+	/**
+	 * Checks if the dealer's visible card is an ace
+	 * @return Boolean representing whether an ace is showing
+	 */
+	public boolean dealerShowsAce() {
+		return dealerHand.get(0).getFace() == Card.ACE;
+	}
+
+	/**
+	 * Asks for insurance bets from players, if the dealer shows an ace.
+	 */
+	public void insurance() {
+		if (dealerShowsAce()) {
+			for (int i = 0; i < players.size(); i++) {
+				if (players.get(i).getNumHands() > 0)
+					doInsurance(players.get(i));
+			}
+		}
+	}
+
+	/**
+	 * Lets every player play his hands, in seating order. Hands split off
+	 * during a turn are played after the hand they came from. Nobody plays
+	 * once the dealer has shown Blackjack, which he checks for under an ace
+	 * when settling insurance, and under a ten too if the rules say he peeks.
+	 */
+	public void doPlayerTurns() {
+		if (dealerHand.isBlackJack() && (dealerPeeks || dealerShowsAce()))
+			return;
+		Card dealerCard = dealerHand.get(0);
+		for (int i = 0; i < players.size(); i++) {
+			Seat player = players.get(i);
+			for (int h = 0; h < player.getNumHands(); h++)
+				playHand(player, h, dealerCard);
+		}
+	}
+
+	/**
+	 * Plays one hand until the player stands, busts, reaches 21, doubles
+	 * down or surrenders. A split hand is first given its second card. An
+	 * action that is not allowed is taken as standing.
+	 * @param player the player
+	 * @param h index of the hand
+	 * @param dealerCard the dealer's visible card
+	 */
+	private void playHand(Seat player, int h, Card dealerCard) {
+		Hand hand = player.getHand(h);
+		if (hand.length() == 1)
+			giveCard(player, h);
+		int action;
+		do {
+			if (hand.getBestValue() >= Hand.BLACKJACK_VALUE)
+				return;
+			int allowed = getAllowedActions(player, h);
+			// the hand may have become a split ace since the last action
+			if (hand.isSplit() && !hitSplitAces
+					&& hand.get(0).getFace() == Card.ACE) {
+				// split aces stand unless split again
+				if ((allowed & Strategy.ALLOW_SPLIT) == 0)
+					return;
+				allowed = Strategy.ALLOW_SPLIT;
+				action = askAction(player, h, dealerCard, allowed);
+				if (action != Strategy.SPLIT)
+					return;
+			} else {
+				action = askAction(player, h, dealerCard, allowed);
+			}
+			if (!isAllowed(action, allowed))
+				action = Strategy.STAND;
+		} while (parseActions(player, h, action) == true);
+	}
+
+	/**
+	 * Tells whether an action may be taken. Standing and hitting always may.
+	 */
+	private static boolean isAllowed(int action, int allowed) {
+		if (action == Strategy.STAND || action == Strategy.HIT)
+			return true;
+		return action > Strategy.HIT && action <= Strategy.SPLIT
+				&& ((1 << action) & allowed) != 0;
+	}
+
+	/**
+	 * Asks a player how to play a hand, timing the decision if its turn has
+	 * come.
+	 */
+	private int askAction(Seat player, int h, Card dealerCard, int allowed) {
+		if (timingInterval == 0 || --untilTimed > 0)
+			return player.askAction(h, dealerCard, allowed);
+		untilTimed = timingInterval;
+		long start = System.nanoTime();
+		int action = player.askAction(h, dealerCard, allowed);
+		long nanos = System.nanoTime() - start;
+		for (int i = 0; i < listeners.size(); i++)
+			listeners.get(i).decisionTimed(player, h, nanos);
+		return action;
+	}
+
+	/**
+	 * Sets how often the time a strategy takes to decide how to play is
+	 * measured and passed to the listeners' decisionTimed. Off by default,
+	 * since it reads the clock twice per timed decision; timing only a
+	 * sample keeps that cost down while still showing the distribution.
+	 * @param interval time one decision in every interval, or 0 for none
+	 */
+	public void setTimingDecisions(int interval) {
+		if (interval < 0)
+			throw new IllegalArgumentException("interval must not be negative");
+		timingInterval = interval;
+		untilTimed = interval;
+	}
+
+	/**
+	 * Gets the optional actions a player may take on a hand, which depend on
+	 * the number of cards, whether the hand has been split, the player's money
+	 * and the rules.
+	 * @param player the player
+	 * @param h index of the hand
+	 * @return a combination of the ALLOW flags in Strategy
+	 */
+	public int getAllowedActions(Seat player, int h) {
+		Hand hand = player.getHand(h);
+		if (hand.length() != 2)
+			return 0;
+		int allowed = hand.isSplit() ? splitOptions : firstOptions;
+		if (player.getBet(h) > player.getMoney())
+			return allowed & Strategy.ALLOW_SURRENDER;
+		if (player.getNumHands() < maxHands
+				&& hand.get(0).getLowValue() == hand.get(1).getLowValue()
+				&& (hand.get(0).getFace() != Card.ACE || !hand.isSplit()
+						|| resplitAces))
+			allowed |= Strategy.ALLOW_SPLIT;
+		return allowed;
+	}
+
+	/**
+	 * Does the dealer's turn. The dealer draws to 17, and on a soft 17 too
+	 * if the rules say he hits it.
+	 */
+	public void doDealerTurn() {
+		dealerHand.flip(1);
+		int value = dealerHand.getBestValue();
+		while (value < (dealerHand.isSoft() ? dealerStandsSoft : 17)) {
+			dealerHand.addCard(deck.draw());
+			value = dealerHand.getBestValue();
+		}
+	}
+
+	/**
+	 * Gives out the money winnings. Computer players are paid before humans.
+	 * Then every seat records the round in its stats.
+	 */
+	public void doPayOuts() {
+		for (int i = 0; i < players.size(); i++) {
+			if (!players.get(i).isHuman())
+				payOut(players.get(i));
+		}
+		for (int i = 0; i < players.size(); i++) {
+			if (players.get(i).isHuman())
+				payOut(players.get(i));
+		}
+		for (int i = 0; i < players.size(); i++)
+			players.get(i).endRound();
+	}
+
+	/**
+	 * Clears the cards from the table into the discard tray, and lets the
+	 * deck reshuffle if the cut card has come out.
+	 */
+	public void reset() {
+		for (int i = 0; i < players.size(); i++) {
+			Seat player = players.get(i);
+			for (int h = 0; h < player.getNumHands(); h++)
+				collectCards(player.getHand(h));
+		}
+		collectCards(dealerHand);
+		deck.endRound();
+		round++;
+	}
+
+	/**
+	 * Gives a card to one of the player's hands
+	 * @param player the player to give a card to
+	 * @param h index of the hand
+	 */
+	public void giveCard(Seat player, int h) {
+		player.getHand(h).addCard(deck.draw());
+	}
+
+	/**
+	 * Doubles the player's bet on a hand and gives it exactly one more card.
+	 * @param player the player doubling down
+	 * @param h index of the hand
+	 */
+	public void doubleDown(Seat player, int h) {
+		player.doubleDown(h);
+		giveCard(player, h);
+	}
+
+	/**
+	 * Splits a pair into two hands and gives the first its second card. The
+	 * new hand gets its second card when it is played.
+	 * @param player the player splitting
+	 * @param h index of the hand holding the pair
+	 */
+	public void split(Seat player, int h) {
+		player.split(h);
+		giveCard(player, h);
+	}
+
+	/**
+	 * Takes back the cards of one of the player's hands and returns half of
+	 * the bet on it.
+	 * @param player the player surrendering
+	 * @param h index of the hand
+	 */
+	public void surrender(Seat player, int h) {
+		int amount = player.getBet(h) / 2;
+		player.addWinnings(amount);
+		for (int i = 0; i < listeners.size(); i++)
+			listeners.get(i).payoutMade(player, h, SURRENDERED, amount);
+		collectCards(player.getHand(h));
+	}
+
+	/**
+	 * Processes a player's actions
+	 * @param player The player to parse actions for
+	 * @param h index of the hand being played
+	 * @param action The action to do
+	 * @return true if the player can continue to play the hand, false
+	 *         otherwise
+	 */
+	private boolean parseActions(Seat player, int h, int action) {
+		for (int i = 0; i < listeners.size(); i++)
+			listeners.get(i).actionTaken(player, h, action);
+		switch (action) {
+		case Strategy.STAND:
+			return false;
+		case Strategy.HIT:
+			giveCard(player, h);
+			return true;
+		case Strategy.SURRENDER:
+			surrender(player, h);
+			return false;
+		case Strategy.DOUBLE:
+			doubleDown(player, h);
+			return false;
+		case Strategy.SPLIT:
+			split(player, h);
+			return true;
+		default:
+			return false;
+		}
+	}
+
+	/**
+	 * Asks a player for an insurance bet and settles it right away.
+	 * @param player the player to ask
+	 */
+	private void doInsurance(Seat player) {
+		int insureBet = player.askInsurance(deck);
+		if (insureBet == 0)
+			return;
+		boolean dealerHasBJ = dealerHand.isBlackJack();
+		if (dealerHasBJ)
+			player.addWinnings(insureBet * 3);
+		else
+			player.addWinnings(0);
+		for (int i = 0; i < listeners.size(); i++)
+			listeners.get(i).insuranceSettled(player, insureBet, dealerHasBJ);
+	}
+
+	/**
+	 * Gives or takes money from a player, for each of his hands
+	 * @param player the player to pay
+	 */
+	private void payOut(Seat player) {
+		for (int h = 0; h < player.getNumHands(); h++)
+			payOut(player, h);
+	}
+
+	/**
+	 * Gives or takes money from a player for one hand
+	 * @param player the player to pay
+	 * @param h index of the hand
+	 */
+	private void payOut(Seat player, int h) {
+		Hand hand = player.getHand(h);
+		if (hand.length() == 0) // surrendered
+			return;
+		int bet = player.getBet(h);
+		int outcome;
+		int amount;
+
+		boolean playerHasBJ = hand.isBlackJack();
+		boolean dealerHasBJ = dealerHand.isBlackJack();
+		if (playerHasBJ && dealerHasBJ) {
+			outcome = BOTH_BLACKJACK;
+			amount = bet;
+		} else if (playerHasBJ) {
+			outcome = PLAYER_BLACKJACK;
+			amount = bet + bet * blackjackNumerator / blackjackDenominator;
+		} else if (dealerHasBJ) {
+			outcome = DEALER_BLACKJACK;
+			amount = 0;
+		} else if (hand.isBusted()) {
+			outcome = PLAYER_BUSTED;
+			amount = 0;
+		} else if (dealerHand.isBusted()) {
+			outcome = DEALER_BUSTED;
+			amount = bet * 2;
+		} else {
+			int playerValue = hand.getBestValue();
+			int dealerValue = dealerHand.getBestValue();
+			if (playerValue > dealerValue) {
+				outcome = PLAYER_WINS;
+				amount = bet * 2;
+			} else if (playerValue == dealerValue) {
+				outcome = PUSH;
+				amount = bet;
+			} else {
+				outcome = DEALER_WINS;
+				amount = 0;
+			}
+		}
+		player.addWinnings(amount);
+		for (int i = 0; i < listeners.size(); i++)
+			listeners.get(i).payoutMade(player, h, outcome, amount);
+	}
+
+	/**
+	 * Returns the cards of a hand to the bottom of the deck, emptying it.
+	 * @param hand the hand to collect
+	 */
+	private void collectCards(Hand hand) {
+		for (int i = 0; i < hand.length(); i++)
+			deck.addToBottom(hand.get(i));
+		hand.clear();
+	}
+}
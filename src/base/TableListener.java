@@ -0,0 +1,57 @@
+package base;
+
+/**
+ * Receives notifications from a TableEngine as a round is played and settled.
+ * A GUI can use these to tell a human player what happened, a RoundLog uses
+ * them to record every round, and a headless simulation can simply not
+ * register any listener.
+ *
+ * @author Vance Zuo
+ */
+public interface TableListener {
+
+	/**
+	 * Called at the start of a round, before any bets are asked for.
+	 * @param table the table starting the round
+	 */
+	default void roundStarted(TableEngine table) {
+	}
+
+	/**
+	 * Called when a player has chosen an action, before it is played.
+	 * @param player the player
+	 * @param hand index of the hand being played
+	 * @param action the action, see Strategy
+	 */
+	default void actionTaken(Seat player, int hand, int action) {
+	}
+
+	/**
+	 * Called after a player has decided how to play a hand, for the
+	 * decisions the table times (see TableEngine.setTimingDecisions).
+	 * @param player the player
+	 * @param hand index of the hand being played
+	 * @param nanos time the strategy took to decide, in nanoseconds
+	 */
+	default void decisionTimed(Seat player, int hand, long nanos) {
+	}
+
+	/**
+	 * Called after an insurance bet has been settled.
+	 * @param player the player who took insurance
+	 * @param insureBet the amount insured
+	 * @param dealerHasBlackJack whether the insurance paid out
+	 */
+	void insuranceSettled(Seat player, int insureBet,
+			boolean dealerHasBlackJack);
+
+	/**
+	 * Called after one of a player's hands has been paid out, or after he
+	 * has surrendered (while his cards are still in his hand).
+	 * @param player the player who was paid
+	 * @param hand index of the hand
+	 * @param outcome one of the TableEngine outcome constants
+	 * @param amount the money given to the player, including the returned bet
+	 */
+	void payoutMade(Seat player, int hand, int outcome, int amount);
+}
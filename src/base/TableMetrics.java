@@ -0,0 +1,555 @@
+package base;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Counters and histograms for any number of tables playing at once: rounds,
+ * shuffles, cards drawn, how long strategies take to decide, how hands are
+ * paid out and how much money each seat has. Attach each table once:
+ *
+ * <pre>
+ * TableMetrics metrics = new TableMetrics();
+ * metrics.register("experiment");
+ * metrics.attach(table);
+ * metrics.export("9010"); // or a file name
+ * </pre>
+ *
+ * Every counter is a LongAdder, striped so that tables on different threads
+ * do not contend for it. Each table counts into plain fields of a listener
+ * only its thread touches, and adds them to the shared counters every
+ * FLUSH_ROUNDS rounds and when detached, so the totals lag each playing
+ * table by at most that many rounds. The deck's own counts are read at the
+ * same time, so drawing a card costs no more than before, and only one
+ * decision in TIMING_INTERVAL is timed, since reading the clock costs about
+ * as much as a decision. The metrics can be watched through JMX, or as plain
+ * text written to a file every second or sent to whoever connects to a local
+ * port (e.g. with nc).
+ * <p>
+ * Seats are grouped by name, so the seats of the same AI profile at many
+ * tables add up.
+ *
+ * @author Vance Zuo
+ */
+public class TableMetrics implements TableMetricsMBean, Closeable {
+
+	/** Rounds a table plays between adding its counts to the totals */
+	public static final int FLUSH_ROUNDS = 64;
+	/** A table times one decision in this many */
+	public static final int TIMING_INTERVAL = 16;
+
+	// Outcome constants of TableEngine run from 0 to SURRENDERED
+	private static final int NUM_OUTCOMES = TableEngine.SURRENDERED + 1;
+	private static final String[] OUTCOME_NAMES = { "both blackjack",
+			"player blackjack", "dealer blackjack", "player busted",
+			"dealer busted", "player wins", "push", "dealer wins",
+			"surrendered" };
+
+	private long startTime = System.nanoTime();
+	private LongAdder rounds = new LongAdder();
+	private LongAdder shuffles = new LongAdder();
+	private LongAdder cardsDrawn = new LongAdder();
+	private LongAdder decisions = new LongAdder();
+	private Histogram decisionNanos = new Histogram();
+	private Histogram payouts = new Histogram();
+	private LongAdder[] outcomes = new LongAdder[NUM_OUTCOMES];
+	private ConcurrentHashMap<String, SeatCounters> seats =
+			new ConcurrentHashMap<String, SeatCounters>();
+	private ArrayList<String> seatNames = new ArrayList<String>();
+	private ArrayList<Probe> probes = new ArrayList<Probe>();
+
+	private ScheduledExecutorService dumper;
+	private ArrayList<Path> dumpFiles = new ArrayList<Path>();
+	private ServerSocket server;
+	private ObjectName objectName;
+
+	/**
+	 * Creates metrics with every counter at zero.
+	 */
+	public TableMetrics() {
+		for (int i = 0; i < NUM_OUTCOMES; i++)
+			outcomes[i] = new LongAdder();
+	}
+
+	/**
+	 * Starts counting a table's rounds. The table times a sample of its
+	 * decisions from now on. Call before the table starts playing, or from
+	 * its own thread.
+	 * @param table the table
+	 */
+	public void attach(TableEngine table) {
+		Probe probe = new Probe(table);
+		synchronized (probes) {
+			probes.add(probe);
+		}
+		table.setTimingDecisions(TIMING_INTERVAL);
+		table.addListener(probe);
+	}
+
+	/**
+	 * Stops counting a table's rounds, adding what it has counted since it
+	 * last flushed to the totals. Call once the table has stopped playing,
+	 * or from its own thread.
+	 * @param table the table, which must have been attached
+	 */
+	public void detach(TableEngine table) {
+		Probe probe = null;
+		synchronized (probes) {
+			for (int i = 0; i < probes.size(); i++) {
+				if (probes.get(i).table == table) {
+					probe = probes.remove(i);
+					break;
+				}
+			}
+		}
+		if (probe == null)
+			throw new IllegalArgumentException("Table is not attached");
+		table.removeListener(probe);
+		table.setTimingDecisions(0);
+		probe.flush();
+	}
+
+	/**
+	 * Registers the metrics with the platform MBean server, under
+	 * blackjack:type=TableMetrics,name=name.
+	 * @param name name telling these metrics apart from others
+	 * @throws JMException if the name is taken or invalid
+	 */
+	public void register(String name) throws JMException {
+		objectName = new ObjectName("blackjack:type=TableMetrics,name="
+				+ ObjectName.quote(name));
+		ManagementFactory.getPlatformMBeanServer().registerMBean(this,
+				objectName);
+	}
+
+	/**
+	 * Makes the plain-text dump available outside the JVM.
+	 * @param target a port number to serve the dump on, or the name of a
+	 *               file to rewrite every second
+	 * @throws IOException if the port cannot be listened on
+	 */
+	public void export(String target) throws IOException {
+		if (target.matches("\\d+"))
+			serve(Integer.parseInt(target));
+		else
+			dumpEvery(Paths.get(target), 1000);
+	}
+
+	/**
+	 * Rewrites a file with the plain-text dump periodically, from a daemon
+	 * thread, and once more when closed. The file is replaced in one move,
+	 * so readers never see half a dump.
+	 * @param file the file
+	 * @param periodMillis time between dumps, in milliseconds
+	 */
+	public synchronized void dumpEvery(final Path file, long periodMillis) {
+		if (dumper == null)
+			dumper = Executors.newSingleThreadScheduledExecutor(
+					daemon("metrics-dump"));
+		dumpFiles.add(file);
+		dumper.scheduleAtFixedRate(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					writeDump(file);
+				} catch (IOException e) {
+					System.err.println("Could not write metrics: " + e);
+				}
+			}
+		}, 0, periodMillis, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Writes the plain-text dump to a file, replacing it.
+	 * @param file the file
+	 * @throws IOException if the file cannot be written
+	 */
+	public void writeDump(Path file) throws IOException {
+		Path parent = file.toAbsolutePath().getParent();
+		Path temp = Files.createTempFile(parent, "metrics", ".tmp");
+		Files.write(temp, dump().getBytes(StandardCharsets.UTF_8));
+		Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING,
+				StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	/**
+	 * Sends the plain-text dump to every connection on a local port, from a
+	 * daemon thread, closing the connection after it.
+	 * @param port the port, or 0 for any free port
+	 * @return the port listened on
+	 * @throws IOException if the port cannot be listened on
+	 */
+	public synchronized int serve(int port) throws IOException {
+		if (server != null)
+			throw new IllegalStateException("Already serving");
+		final ServerSocket socket = new ServerSocket(port, 50,
+				InetAddress.getLoopbackAddress());
+		server = socket;
+		daemon("metrics-server").newThread(new Runnable() {
+			@Override
+			public void run() {
+				while (!socket.isClosed()) {
+					try {
+						Socket client = socket.accept();
+						try {
+							OutputStream out = client.getOutputStream();
+							out.write(dump().getBytes(StandardCharsets.UTF_8));
+						} finally {
+							client.close();
+						}
+					} catch (IOException e) { // closed, or client went away
+					}
+				}
+			}
+		}).start();
+		return socket.getLocalPort();
+	}
+
+	/**
+	 * Makes a factory of daemon threads with a name.
+	 */
+	private static ThreadFactory daemon(final String name) {
+		return new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable r) {
+				Thread t = new Thread(r, name);
+				t.setDaemon(true);
+				return t;
+			}
+		};
+	}
+
+	/**
+	 * Stops dumping and serving, and unregisters from JMX. Files dumped to
+	 * are written a last time, with the final totals if every table has
+	 * been detached.
+	 * @throws IOException if a file cannot be written or the server socket
+	 *                     cannot be closed
+	 */
+	@Override
+	public synchronized void close() throws IOException {
+		if (dumper != null) {
+			dumper.shutdownNow();
+			try { // let a dump in progress finish before the last one
+				dumper.awaitTermination(1, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			for (int i = 0; i < dumpFiles.size(); i++)
+				writeDump(dumpFiles.get(i));
+		}
+		if (server != null)
+			server.close();
+		if (objectName != null) {
+			try {
+				ManagementFactory.getPlatformMBeanServer()
+						.unregisterMBean(objectName);
+			} catch (JMException e) { // already gone
+			}
+			objectName = null;
+		}
+	}
+
+	@Override
+	public long getRounds() {
+		return rounds.sum();
+	}
+
+	@Override
+	public double getRoundsPerSecond() {
+		return rounds.sum() / ((System.nanoTime() - startTime) / 1e9);
+	}
+
+	@Override
+	public long getShuffles() {
+		return shuffles.sum();
+	}
+
+	@Override
+	public long getCardsDrawn() {
+		return cardsDrawn.sum();
+	}
+
+	@Override
+	public long getDecisions() {
+		return decisions.sum();
+	}
+
+	@Override
+	public double getMeanDecisionNanos() {
+		return decisionNanos.getMean();
+	}
+
+	@Override
+	public long getDecisionNanos50() {
+		return decisionNanos.getPercentile(50);
+	}
+
+	@Override
+	public long getDecisionNanos99() {
+		return decisionNanos.getPercentile(99);
+	}
+
+	@Override
+	public long[] getOutcomeCounts() {
+		long[] counts = new long[NUM_OUTCOMES];
+		for (int i = 0; i < NUM_OUTCOMES; i++)
+			counts[i] = outcomes[i].sum();
+		return counts;
+	}
+
+	@Override
+	public double getMeanPayout() {
+		return payouts.getMean();
+	}
+
+	@Override
+	public synchronized String[] getSeatNames() {
+		return seatNames.toArray(new String[seatNames.size()]);
+	}
+
+	@Override
+	public long[] getSeatHands() {
+		String[] names = getSeatNames();
+		long[] values = new long[names.length];
+		for (int i = 0; i < names.length; i++)
+			values[i] = seats.get(names[i]).hands.sum();
+		return values;
+	}
+
+	@Override
+	public long[] getSeatNet() {
+		String[] names = getSeatNames();
+		long[] values = new long[names.length];
+		for (int i = 0; i < names.length; i++)
+			values[i] = seats.get(names[i]).net.sum();
+		return values;
+	}
+
+	@Override
+	public long[] getSeatBankroll() {
+		String[] names = getSeatNames();
+		long[] values = new long[names.length];
+		for (int i = 0; i < names.length; i++)
+			values[i] = seats.get(names[i]).bankroll.sum();
+		return values;
+	}
+
+	@Override
+	public String dump() {
+		StringBuilder sb = new StringBuilder();
+		sb.append(String.format("rounds %d%n", getRounds()));
+		sb.append(String.format("rounds_per_second %.1f%n",
+				getRoundsPerSecond()));
+		sb.append(String.format("shuffles %d%n", getShuffles()));
+		sb.append(String.format("cards_drawn %d%n", getCardsDrawn()));
+		sb.append(String.format("decisions %d%n", getDecisions()));
+		sb.append(String.format("decision_nanos_mean %.1f%n",
+				getMeanDecisionNanos()));
+		sb.append(String.format("decision_nanos_p50 %d%n",
+				getDecisionNanos50()));
+		sb.append(String.format("decision_nanos_p99 %d%n",
+				getDecisionNanos99()));
+		sb.append(String.format("payout_mean %.2f%n", getMeanPayout()));
+		sb.append(String.format("payout_p50 %d%n", payouts.getPercentile(50)));
+		sb.append(String.format("payout_p99 %d%n", payouts.getPercentile(99)));
+		long[] counts = getOutcomeCounts();
+		for (int i = 0; i < NUM_OUTCOMES; i++)
+			sb.append(String.format("outcome{%s} %d%n", OUTCOME_NAMES[i],
+					counts[i]));
+		String[] names = getSeatNames();
+		for (int i = 0; i < names.length; i++) {
+			SeatCounters seat = seats.get(names[i]);
+			sb.append(String.format("seat_hands{%s} %d%n", names[i],
+					seat.hands.sum()));
+			sb.append(String.format("seat_wagered{%s} %d%n", names[i],
+					seat.wagered.sum()));
+			sb.append(String.format("seat_net{%s} %d%n", names[i],
+					seat.net.sum()));
+			sb.append(String.format("seat_bankroll{%s} %d%n", names[i],
+					seat.bankroll.sum()));
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Gets the counters of a seat name, making them the first time.
+	 */
+	private SeatCounters getSeat(String name) {
+		SeatCounters seat = seats.get(name);
+		if (seat == null) {
+			synchronized (this) {
+				seat = seats.get(name);
+				if (seat == null) {
+					seat = new SeatCounters();
+					seats.put(name, seat);
+					seatNames.add(name);
+				}
+			}
+		}
+		return seat;
+	}
+
+	/**
+	 * Counters of the seats with one name.
+	 */
+	private static class SeatCounters {
+		LongAdder hands = new LongAdder();
+		LongAdder wagered = new LongAdder();
+		LongAdder net = new LongAdder();
+		LongAdder bankroll = new LongAdder();
+	}
+
+	/**
+	 * Counts the rounds of one table, on that table's thread, in plain fields
+	 * that are added to the shared counters every FLUSH_ROUNDS rounds and
+	 * when the table is detached.
+	 */
+	private class Probe implements TableListener {
+		private TableEngine table;
+		private Deck deck;
+		private long lastShuffles;
+		private long lastCardsDrawn;
+		private int roundsLocal;
+		private long decisionsLocal;
+		private long[] outcomesLocal = new long[NUM_OUTCOMES];
+		private Histogram.Recorder decisionTimes = decisionNanos.newRecorder();
+		private Histogram.Recorder payoutAmounts = payouts.newRecorder();
+		private ArrayList<SeatTally> tallies = new ArrayList<SeatTally>();
+
+		public Probe(TableEngine probedTable) {
+			table = probedTable;
+			deck = table.getDeck();
+			lastShuffles = deck.getShuffles();
+			lastCardsDrawn = deck.getCardsDrawn();
+		}
+
+		/**
+		 * Gets the tally of a seat, starting one (and adding the seat's
+		 * money to the bankroll) the first time it is seen.
+		 */
+		private SeatTally tallyOf(Seat player) {
+			for (int i = 0; i < tallies.size(); i++) {
+				if (tallies.get(i).seat == player)
+					return tallies.get(i);
+			}
+			SeatTally tally = new SeatTally(player, getSeat(player.getName()));
+			tally.shared.bankroll.add(player.getMoney()); // between rounds
+			tallies.add(tally);
+			return tally;
+		}
+
+		@Override
+		public void roundStarted(TableEngine roundTable) {
+			if (++roundsLocal == FLUSH_ROUNDS)
+				flush();
+			ArrayList<Seat> players = roundTable.getSeats();
+			if (tallies.size() < players.size()) {
+				for (int i = 0; i < players.size(); i++)
+					tallyOf(players.get(i));
+			}
+		}
+
+		/**
+		 * Adds everything counted since the last flush to the shared
+		 * counters.
+		 */
+		private void flush() {
+			rounds.add(roundsLocal);
+			roundsLocal = 0;
+			long s = deck.getShuffles();
+			long c = deck.getCardsDrawn();
+			shuffles.add(s - lastShuffles);
+			cardsDrawn.add(c - lastCardsDrawn);
+			lastShuffles = s;
+			lastCardsDrawn = c;
+			decisions.add(decisionsLocal);
+			decisionsLocal = 0;
+			for (int i = 0; i < NUM_OUTCOMES; i++) {
+				if (outcomesLocal[i] != 0) {
+					outcomes[i].add(outcomesLocal[i]);
+					outcomesLocal[i] = 0;
+				}
+			}
+			decisionTimes.flush();
+			payoutAmounts.flush();
+			for (int i = 0; i < tallies.size(); i++)
+				tallies.get(i).flush();
+		}
+
+		@Override
+		public void actionTaken(Seat player, int hand, int action) {
+			decisionsLocal++;
+		}
+
+		@Override
+		public void decisionTimed(Seat player, int hand, long nanos) {
+			decisionTimes.record(nanos);
+		}
+
+		@Override
+		public void insuranceSettled(Seat player, int insureBet,
+				boolean dealerHasBlackJack) {
+			tallyOf(player).net += dealerHasBlackJack ? 2 * insureBet
+					: -insureBet;
+		}
+
+		@Override
+		public void payoutMade(Seat player, int hand, int outcome,
+				int amount) {
+			int bet = player.getBet(hand);
+			outcomesLocal[outcome]++;
+			payoutAmounts.record(amount);
+			SeatTally tally = tallyOf(player);
+			tally.hands++;
+			tally.wagered += bet;
+			tally.net += amount - bet;
+		}
+	}
+
+	/**
+	 * What one seat has won since its table last flushed.
+	 */
+	private static class SeatTally {
+		Seat seat;
+		SeatCounters shared;
+		long hands;
+		long wagered;
+		long net;
+
+		SeatTally(Seat tallySeat, SeatCounters sharedCounters) {
+			seat = tallySeat;
+			shared = sharedCounters;
+		}
+
+		void flush() {
+			shared.hands.add(hands);
+			shared.wagered.add(wagered);
+			shared.net.add(net);
+			shared.bankroll.add(net);
+			hands = 0;
+			wagered = 0;
+			net = 0;
+		}
+	}
+}
@@ -0,0 +1,58 @@
+package base;
+
+/**
+ * The attributes of TableMetrics seen through JMX, e.g. in JConsole or
+ * VisualVM.
+ *
+ * @author Vance Zuo
+ */
+public interface TableMetricsMBean {
+
+	/** @return rounds started at all attached tables */
+	long getRounds();
+
+	/** @return rounds per second since the metrics were created */
+	double getRoundsPerSecond();
+
+	/** @return times the decks of the attached tables were shuffled */
+	long getShuffles();
+
+	/** @return cards drawn from the decks of the attached tables */
+	long getCardsDrawn();
+
+	/** @return decisions made, one per action asked for */
+	long getDecisions();
+
+	/** @return mean time a strategy took to decide, over a sample */
+	double getMeanDecisionNanos();
+
+	/** @return bound on the median decision time, in nanoseconds */
+	long getDecisionNanos50();
+
+	/** @return bound on the 99th percentile decision time, in nanoseconds */
+	long getDecisionNanos99();
+
+	/** @return number of hands settled with each TableEngine outcome */
+	long[] getOutcomeCounts();
+
+	/** @return mean money paid out per hand, including returned bets */
+	double getMeanPayout();
+
+	/** @return names of the seats, which index the seat attributes */
+	String[] getSeatNames();
+
+	/** @return hands settled per seat name */
+	long[] getSeatHands();
+
+	/** @return money won (or lost) per seat name */
+	long[] getSeatNet();
+
+	/** @return money held per seat name, over all tables */
+	long[] getSeatBankroll();
+
+	/**
+	 * Describes all the metrics as plain text.
+	 * @return the text
+	 */
+	String dump();
+}
@@ -0,0 +1,280 @@
+package base;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.random.RandomGenerator.SplittableGenerator;
+
+import javax.management.JMException;
+
+/**
+ * Runs many independent tables at once, each on a thread of its own, and
+ * keeps count of the rounds each has played so throughput can be measured
+ * per table and in total.
+ * <p>
+ * On a Java version with virtual threads, every table gets a virtual thread,
+ * so thousands of tables cost little more than their decks and seats, and a
+ * table waiting for a human blocks without holding an OS thread. Otherwise
+ * each table gets a platform (daemon) thread. Tables playing flat out yield
+ * every few rounds, so that virtual threads share their carrier threads
+ * fairly. Stopping interrupts every table, so one waiting for a human plays
+ * the rest of its round as if the human stood, and then stops too.
+ * <p>
+ * Usage: java base.TableScheduler [tables] [seconds] [seed] [metrics port or
+ * file]
+ *
+ * @author Vance Zuo
+ */
+public class TableScheduler {
+
+	// Rounds a table plays between yields
+	private static final int ROUNDS_PER_YIELD = 64;
+	// Longest stop waits for the tables to finish their rounds
+	private static final long STOP_TIMEOUT_SECONDS = 10;
+
+	private ArrayList<TableEngine> tables = new ArrayList<TableEngine>();
+	private ArrayList<Runner> runners = new ArrayList<Runner>();
+	private ArrayList<Future<?>> futures = new ArrayList<Future<?>>();
+	private ExecutorService executor;
+	private boolean virtual;
+	private volatile boolean running;
+	private long startTime;
+	private long stopTime;
+
+	/**
+	 * Creates a scheduler with no tables.
+	 */
+	public TableScheduler() {
+		try {
+			Method factory = Executors.class.getMethod(
+					"newVirtualThreadPerTaskExecutor");
+			executor = (ExecutorService) factory.invoke(null);
+			virtual = true;
+		} catch (ReflectiveOperationException e) { // before Java 21
+			executor = Executors.newCachedThreadPool(new ThreadFactory() {
+				private int n;
+
+				@Override
+				public synchronized Thread newThread(Runnable r) {
+					Thread t = new Thread(r, "table-" + n++);
+					t.setDaemon(true);
+					return t;
+				}
+			});
+			virtual = false;
+		}
+	}
+
+	/**
+	 * Tells whether the tables run on virtual threads.
+	 * @return true if virtual threads are used, false for platform threads
+	 */
+	public boolean usesVirtualThreads() {
+		return virtual;
+	}
+
+	/**
+	 * Adds a table, which starts playing right away if the scheduler has been
+	 * started. The table's deck and seats must not be shared with another
+	 * table.
+	 * @param table the table
+	 * @return index of the table
+	 */
+	public synchronized int addTable(TableEngine table) {
+		tables.add(table);
+		Runner runner = new Runner(table);
+		runners.add(runner);
+		if (running)
+			futures.add(executor.submit(runner));
+		return tables.size() - 1;
+	}
+
+	/**
+	 * Gets the number of tables.
+	 * @return the number of tables
+	 */
+	public synchronized int getNumTables() {
+		return tables.size();
+	}
+
+	/**
+	 * Starts playing rounds at every table.
+	 */
+	public synchronized void start() {
+		if (running)
+			return;
+		running = true;
+		startTime = System.nanoTime();
+		for (int i = 0; i < runners.size(); i++)
+			futures.add(executor.submit(runners.get(i)));
+	}
+
+	/**
+	 * Stops every table at the end of its current round, interrupting any
+	 * table waiting on its strategy, and waits a while for them. The
+	 * scheduler cannot be started again.
+	 * @return true if every table stopped in time, false if some are still
+	 *         playing
+	 * @throws InterruptedException if interrupted while waiting
+	 */
+	public boolean stop() throws InterruptedException {
+		ArrayList<Future<?>> started;
+		synchronized (this) {
+			running = false;
+			stopTime = System.nanoTime();
+			started = new ArrayList<Future<?>>(futures);
+		}
+		executor.shutdownNow();
+		if (!executor.awaitTermination(STOP_TIMEOUT_SECONDS, TimeUnit.SECONDS))
+			return false;
+		try {
+			for (int i = 0; i < started.size(); i++)
+				started.get(i).get();
+		} catch (ExecutionException e) {
+			throw new RuntimeException("Table failed", e.getCause());
+		}
+		return true;
+	}
+
+	/**
+	 * Gets the number of rounds a table has played.
+	 * @param table index of the table
+	 * @return rounds played since the start
+	 */
+	public synchronized long getRounds(int table) {
+		return runners.get(table).rounds;
+	}
+
+	/**
+	 * Gets the number of rounds played at all tables.
+	 * @return rounds played since the start
+	 */
+	public synchronized long getTotalRounds() {
+		long total = 0;
+		for (int i = 0; i < runners.size(); i++)
+			total += runners.get(i).rounds;
+		return total;
+	}
+
+	/**
+	 * Gets the rate a table has played at since the scheduler started.
+	 * @param table index of the table
+	 * @return rounds per second
+	 */
+	public double getRoundsPerSecond(int table) {
+		return getRounds(table) / getSeconds();
+	}
+
+	/**
+	 * Gets the rate all tables together have played at since the scheduler
+	 * started.
+	 * @return rounds per second
+	 */
+	public double getTotalRoundsPerSecond() {
+		return getTotalRounds() / getSeconds();
+	}
+
+	/**
+	 * Gets the time played so far, or until stopped.
+	 */
+	private synchronized double getSeconds() {
+		long end = running ? System.nanoTime() : stopTime;
+		return (end - startTime) / 1e9;
+	}
+
+	/**
+	 * Plays rounds at one table until the scheduler stops.
+	 */
+	private class Runner implements Runnable {
+		private TableEngine table;
+		private volatile long rounds; // only written by the table's thread
+
+		public Runner(TableEngine runTable) {
+			table = runTable;
+		}
+
+		@Override
+		public void run() {
+			while (running && !Thread.currentThread().isInterrupted()) {
+				for (int i = 0; i < ROUNDS_PER_YIELD && running; i++) {
+					table.playRound();
+					rounds++;
+				}
+				Thread.yield();
+			}
+		}
+	}
+
+	/**
+	 * Runs a number of AI tables for a while, printing the total rate every
+	 * second and the spread of the per-table rates at the end.
+	 * @param args number of tables (default 1000), seconds to run (default
+	 *             10), seed (default random, "-" for random) and a port to
+	 *             serve metrics on or file to write them to (default none,
+	 *             but they are always registered with JMX)
+	 */
+	public static void main(String[] args) throws InterruptedException,
+			IOException, JMException {
+		int numTables = 1000;
+		int seconds = 10;
+		if (args.length > 0)
+			numTables = Integer.parseInt(args[0]);
+		if (args.length > 1)
+			seconds = Integer.parseInt(args[1]);
+		SplittableGenerator random = args.length > 2 && !args[2].equals("-")
+				? RandomStreams.create(Long.parseLong(args[2]))
+				: RandomStreams.create();
+		TableMetrics metrics = new TableMetrics();
+		metrics.register("TableScheduler");
+		if (args.length > 3)
+			metrics.export(args[3]);
+
+		TableScheduler scheduler = new TableScheduler();
+		for (int t = 0; t < numTables; t++) {
+			TableEngine table = new TableEngine(new Deck(random.split()), 25);
+			for (int p = 0; p < MonteCarloRunner.PROFILES.length; p++)
+				table.addSeat(new Seat(MonteCarloRunner.PROFILE_NAMES[p],
+						new ComputerStrategy(MonteCarloRunner.PROFILES[p],
+								random.split()), Integer.MAX_VALUE / 2, 25));
+			metrics.attach(table);
+			scheduler.addTable(table);
+		}
+		System.out.printf("%d tables on %s threads%n", numTables,
+				scheduler.usesVirtualThreads() ? "virtual" : "platform");
+		scheduler.start();
+		long previousTime = System.nanoTime();
+		long previous = scheduler.getTotalRounds();
+		for (int s = 1; s <= seconds; s++) {
+			Thread.sleep(1000); // may oversleep while the tables are busy
+			long total = scheduler.getTotalRounds();
+			long time = System.nanoTime();
+			System.out.printf("%3d s %12.0f rounds/s%n", s,
+					(total - previous) / ((time - previousTime) / 1e9));
+			previous = total;
+			previousTime = time;
+		}
+		if (scheduler.stop()) {
+			for (int t = 0; t < numTables; t++)
+				metrics.detach(scheduler.tables.get(t));
+		} else {
+			System.err.println("Some tables did not stop in time");
+		}
+
+		double min = Double.MAX_VALUE;
+		double max = 0;
+		for (int t = 0; t < numTables; t++) {
+			min = Math.min(min, scheduler.getRoundsPerSecond(t));
+			max = Math.max(max, scheduler.getRoundsPerSecond(t));
+		}
+		System.out.printf("Total %.0f rounds/s, per table %.0f min, %.0f mean,"
+				+ " %.0f max%n", scheduler.getTotalRoundsPerSecond(), min,
+				scheduler.getTotalRoundsPerSecond() / numTables, max);
+		metrics.close();
+	}
+}
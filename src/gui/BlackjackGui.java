@@ -2,14 +2,17 @@ package gui;
 
 import java.awt.*;
 import java.awt.event.*;
-import java.net.URL;
-import java.util.ArrayList;
+import java.io.IOException;
+import java.util.Arrays;
 
 import javax.swing.*;
 import javax.swing.UIManager.LookAndFeelInfo;
 
-import base.Card;
+import base.ComputerStrategy;
 import base.Deck;
+import base.Seat;
+import base.TableEngine;
+import base.TableListener;
 
 /**
  * Contains the main GUI and main method.
@@ -24,20 +27,28 @@ public class BlackjackGui {
 	public static final int START_MONEY = 10000;
 
 	/**
-	 * Contains GUI components.
+	 * Contains GUI components. The game itself is run by a TableEngine, which
+	 * this window displays; the human player's choices reach it through a
+	 * HumanStrategy, which blocks the game thread until he decides. The
+	 * game thread publishes snapshots of the table after each step, which a
+	 * SnapshotRenderer shows on the event thread at a fixed frame rate.
 	 */			
-	public class GameWindow extends JFrame implements ActionListener {
+	public class GameWindow extends JFrame
+			implements ActionListener, TableListener {
 		private ChoicePanel playerChoices;
 		private PlayerPanel p1; // human slot
 		private PlayerPanel p2;
 		private PlayerPanel p3;
 		private PlayerPanel p4;
 		private DealerPanel dealer;
-		private Deck deck;
-		private boolean turnContinue;
+		private TableEngine table;
+		private SnapshotRenderer renderer;
+		private boolean[] settled; // per seat, bet settled this round
 		private boolean hasHuman;
+		private JToggleButton fastForwardButton;
+		private volatile boolean fastForward;
 
-		private Image cardImages;
+		private CardSprites cardImages;
 
 		/**
 		 * Opens window containing Blackjack game.
@@ -65,35 +76,13 @@ public class BlackjackGui {
 		}
 
 		/**
-		 * Responds to button presses from the ChoicePanel. 
+		 * Responds to the fast-forward button.
 		 * @param a The event
 		 */
 		@Override
 		public void actionPerformed(ActionEvent a) {
-			String command = a.getActionCommand();
-			String bop = "That tickles!"; //Placeholder for actual execution
-			if (command.equals("Hit")) {
-				giveCard(p1);
-				boolean busted = p1.getHand().isBusted();
-				turnContinue = !busted;
-				playerChoices.disableSurrender();
-				playerChoices.disableDouble();
-			} else if (command.equals("Stand")) {
-				turnContinue = false;
-			} else if (command.equals("Double")){
-				p1.doubleDown();
-				giveCard(p1);
-				turnContinue = false;
-			} else if (command.equals("Split")) {
-				JOptionPane.showMessageDialog(this, bop);
-			} else if (command.equals("Surrender")) {				
-				JOptionPane.showMessageDialog(this, "Not feeling it? Fine, " +
-						"take back $" + p1.getCurrentBet() / 2 + ".");
-				collectCards(p1);
-				p1.addWinnings(p1.getCurrentBet() / 2);
-				turnContinue = false;
-			}
-			repaint();
+			if (a.getActionCommand().equals("Fast-forward"))
+				fastForward = fastForwardButton.isSelected();
 		}
 
 		public void setLookAndFeel() {
@@ -114,34 +103,48 @@ public class BlackjackGui {
 		 * Adds components to the frame.
 		 */
 		private void initComponents() {
-			deck = new Deck();
-			turnContinue = true;
+			table = new TableEngine(new Deck(), MIN_BET);
+			table.addListener(this);
 
 			setLayout(new BorderLayout(5, 5));				
 
-			dealer = new DealerPanel(MIN_BET, cardImages);
+			dealer = new DealerPanel(table, cardImages);
 			add(dealer, BorderLayout.LINE_START);
 
 			JPanel players = new JPanel();
 			players.setBorder(BorderFactory.createTitledBorder(
 					BorderFactory.createLineBorder(Color.DARK_GRAY), "Players"));
 			if (hasHuman) {
-				p1 = new PlayerPanel("You", true, -1, 
-						START_MONEY, MIN_BET, cardImages);
+				playerChoices = new ChoicePanel();
+				p1 = new PlayerPanel(new Seat("You", new HumanStrategy(this,
+						playerChoices, new Runnable() {
+							@Override
+							public void run() {
+								publish();
+							}
+						}), START_MONEY, MIN_BET), cardImages);
 			} else {
-				p1 = new PlayerPanel("Amateur/Beginner AI", false,
-						PlayerPanel.EASY_BET | PlayerPanel.EASY_PLAY, 
-						START_MONEY, MIN_BET, cardImages);
+				p1 = new PlayerPanel(new Seat("Amateur/Beginner AI",
+						new ComputerStrategy(ComputerStrategy.EASY_BET
+								| ComputerStrategy.EASY_PLAY),
+						START_MONEY, MIN_BET), cardImages);
 			}
-			p2 = new PlayerPanel("Card-Counter/Beginner AI", false,
-					PlayerPanel.HARD_BET | PlayerPanel.EASY_PLAY, 
-					START_MONEY, MIN_BET, cardImages);
-			p3 = new PlayerPanel("Amateur/Skilled AI", false,
-					PlayerPanel.EASY_BET | PlayerPanel.HARD_PLAY, 
-					START_MONEY, MIN_BET, cardImages);
-			p4 = new PlayerPanel("Card-Counter/Skilled AI", false,
-					PlayerPanel.HARD_BET | PlayerPanel.HARD_PLAY, 
-					START_MONEY, MIN_BET, cardImages);	
+			p2 = new PlayerPanel(new Seat("Card-Counter/Beginner AI",
+					new ComputerStrategy(ComputerStrategy.HARD_BET
+							| ComputerStrategy.EASY_PLAY),
+					START_MONEY, MIN_BET), cardImages);
+			p3 = new PlayerPanel(new Seat("Amateur/Skilled AI",
+					new ComputerStrategy(ComputerStrategy.EASY_BET
+							| ComputerStrategy.HARD_PLAY),
+					START_MONEY, MIN_BET), cardImages);
+			p4 = new PlayerPanel(new Seat("Card-Counter/Skilled AI",
+					new ComputerStrategy(ComputerStrategy.HARD_BET
+							| ComputerStrategy.HARD_PLAY),
+					START_MONEY, MIN_BET), cardImages);	
+			table.addSeat(p1.getSeat());
+			table.addSeat(p2.getSeat());
+			table.addSeat(p3.getSeat());
+			table.addSeat(p4.getSeat());
 			players.add(p1);
 			players.add(p2);
 			players.add(p3);
@@ -149,109 +152,106 @@ public class BlackjackGui {
 			players.setOpaque(false);
 			add(players, BorderLayout.CENTER);
 			if (hasHuman) {
-				playerChoices = new ChoicePanel();
-				playerChoices.addListener(this);	
 				add(playerChoices, BorderLayout.PAGE_END);	
+			} else {
+				fastForwardButton = new JToggleButton("Fast-forward");
+				fastForwardButton.setBackground(new Color(197,179,88));
+				fastForwardButton.addActionListener(this);
+				JPanel controls = new JPanel();
+				controls.setOpaque(false);
+				controls.add(fastForwardButton);
+				add(controls, BorderLayout.PAGE_END);
 			}
+			settled = new boolean[table.getSeats().size()];
+			renderer = new SnapshotRenderer(dealer, p1, p2, p3, p4);
+			publish();
+			renderer.start();
 		}
 
 		/**
-		 * Gives or takes money from each player
-		 * @param player 
+		 * Publishes a snapshot of the table to be shown on the next frame.
 		 */
-		private void payOut(PlayerPanel player) {	
-			// surrender check
-			if (player.getHand().length() == 0) {
-				try { Thread.sleep(10); } catch (InterruptedException e) {}
-				return;
-			}
+		private void publish() {
+			renderer.publish(TableSnapshot.of(table, settled));
+		}
 
-			// blackjack hands
-			boolean playerHasBJ = player.getHand().isBlackJack();
-			boolean dealerHasBJ = dealer.getHand().isBlackJack();
-			if (playerHasBJ && dealerHasBJ) {
-				player.addWinnings(player.getCurrentBet());
-				if (player.isHuman())
-					JOptionPane.showMessageDialog(this,
-							"We both have Blackjack," + " a push. Your $"
-									+ player.getCurrentBet()
-									+ " bet is returned.");
-				return;
-			} else if (playerHasBJ && !dealerHasBJ) {
-				player.addWinnings(player.getCurrentBet() * 5 / 2);
-				if (player.isHuman())
-					JOptionPane.showMessageDialog(this,
-							"Not bad, a Blackjack. " + "You win $"
-									+ player.getCurrentBet() * 5 / 2 + ".");
-				return;
-			} else if (!playerHasBJ && dealerHasBJ) {
-				player.addWinnings(0);
-				if (player.isHuman())
-					JOptionPane.showMessageDialog(this, "I have Blackjack. "
-							+ "Sorry, you lose your bet.");			
-				return;
-			}
+		/**
+		 * Publishes a snapshot of the table after a step of the round, unless
+		 * fast-forwarding, in which case only finished rounds are shown.
+		 */
+		private void publishStep() {
+			if (!fastForward)
+				publish();
+		}
 
-			// busting check
-			boolean playerHasBusted = player.getHand().isBusted();
-			boolean dealerHasBusted = dealer.getHand().isBusted();
-			if (playerHasBusted) {
-				player.addWinnings(0);
-				if (player.isHuman())
-					JOptionPane.showMessageDialog(this, "You have busted. "
-							+ "Sorry, you lose.");
-				return;
-			} else if (dealerHasBusted) {
-				player.addWinnings(player.getCurrentBet() * 2);
-				if (player.isHuman())
-					JOptionPane.showMessageDialog(this, "Damn, I've busted. "
-							+ "You get $" + player.getCurrentBet() * 2 + ".");
-				return;
-			}
+		/**
+		 * Marks a seat's bet as settled, so its panel shows the outcome.
+		 * @param player the seat
+		 */
+		private void settle(Seat player) {
+			settled[table.getSeats().indexOf(player)] = true;
+		}
 
-			// normal hands
-			int playerValue = player.getHand().getBestValue();
-			int dealerValue = dealer.getHand().getBestValue();	
-			if (playerValue > dealerValue) {
-				player.addWinnings(player.getCurrentBet() * 2);
-				if (player.isHuman())
-					JOptionPane.showMessageDialog(this,
-							"Looks like you've won. " + "Take your $"
-									+ player.getCurrentBet() * 2 + ".");
-				return;
-			} else if (playerValue == dealerValue){
-				player.addWinnings(player.getCurrentBet());
-				if (player.isHuman())
-					JOptionPane.showMessageDialog(this, "A push. Your $"
-							+ player.getCurrentBet() + " bet is returned.");
-				return;
-			} else {
-				player.addWinnings(0);
-				if (player.isHuman())
-					JOptionPane.showMessageDialog(this, "My hand wins. "
-							+ "Better luck next time around.");
-				return;
+		/**
+		 * Tells the human player how each of his hands was paid out.
+		 */
+		@Override
+		public void payoutMade(Seat player, int hand, int outcome,
+				int amount) {
+			settle(player);
+			if (!player.isHuman() || outcome == TableEngine.SURRENDERED)
+				return; // a surrendering human has already been told
+			publish();
+			int bet = player.getBet(hand);
+			String msg;
+			switch (outcome) {
+			case TableEngine.BOTH_BLACKJACK:
+				msg = "We both have Blackjack," + " a push. Your $" + bet
+						+ " bet is returned.";
+				break;
+			case TableEngine.PLAYER_BLACKJACK:
+				msg = "Not bad, a Blackjack. " + "You win $" + amount + ".";
+				break;
+			case TableEngine.DEALER_BLACKJACK:
+				msg = "I have Blackjack. " + "Sorry, you lose your bet.";
+				break;
+			case TableEngine.PLAYER_BUSTED:
+				msg = "You have busted. " + "Sorry, you lose.";
+				break;
+			case TableEngine.DEALER_BUSTED:
+				msg = "Damn, I've busted. " + "You get $" + amount + ".";
+				break;
+			case TableEngine.PLAYER_WINS:
+				msg = "Looks like you've won. " + "Take your $" + amount + ".";
+				break;
+			case TableEngine.PUSH:
+				msg = "A push. Your $" + bet + " bet is returned.";
+				break;
+			default:
+				msg = "My hand wins. " + "Better luck next time around.";
+				break;
 			}
+			if (player.getNumHands() > 1)
+				msg = "Hand " + (hand + 1) + ": " + msg;
+			JOptionPane.showMessageDialog(this, msg);
 		}
 
 		/**
-		 * Asks for insurance bets from each player
-		 * @param player 
+		 * Tells the human player how his insurance went.
 		 */
-		private void doInsurance(PlayerPanel player) {
-			int insureBet = player.askInsurance(deck.getCount());
-			if (insureBet == 0) 
-				return;
-			if (dealer.getHand().isBlackJack()) {
-				player.addWinnings(insureBet * 3);
+		@Override
+		public void insuranceSettled(Seat player, int insureBet,
+				boolean dealerHasBlackJack) {
+			settle(player);
+			if (player.isHuman())
+				publish();
+			if (dealerHasBlackJack) {
 				if (player.isHuman())
 					JOptionPane.showMessageDialog(this,
 							"Lucky you, I have Blackjack." + "Take $"
 									+ insureBet * 3 + ".");
-				turnContinue = false;
 			} 
 			else {
-				player.addWinnings(0);
 				if (player.isHuman())
 					JOptionPane.showMessageDialog(this,
 							"Lucky you, I don't have Blackjack. "
@@ -262,214 +262,74 @@ public class BlackjackGui {
 		}
 
 		/**
-		 * Load card images file.
+		 * Loads the card images, waiting until they are fully decoded.
 		 */
 		private void loadImages() {
-			ClassLoader cl = GameWindow.class.getClassLoader();
-			URL imageURL = cl.getResource("gui/cards.png");
-			if (imageURL != null)
-				cardImages = Toolkit.getDefaultToolkit().createImage(imageURL);
-			else {
+			try {
+				cardImages = CardSprites.load();
+			} catch (IOException e) {
 				String errorMsg = "Card image file loading failed.";
 				JOptionPane.showMessageDialog(this, errorMsg, "Error", JOptionPane.ERROR_MESSAGE); 
 				System.exit(1);
-			}	        	
-		}
-
-		/**
-		 * Deals cards to the dealer
-		 * @param dealer The dealer to deal cards to
-		 */
-		private void dealerCards(DealerPanel dealer){
-			Card c1 = deck.draw();
-			Card c2 = deck.draw();
-			dealer.startHand(c1, c2);
-			dealer.flipSecond();                    
-		}
-
-		/**
-		 * Deals cards to the player
-		 * @param player The player to deal cards to
-		 */
-		private void dealCards(PlayerPanel player){
-			Card c1 = deck.draw();
-			Card c2 = deck.draw();
-			player.startHand(c1, c2);
-		}
-
-		/**
-		 * Collects cards from the dealer
-		 */
-		private void collectDealerCards(){
-			ArrayList<Card> toCollect = dealer.clearHand();
-			for(Card c: toCollect){
-				deck.addToBottom(c);
-			}
-		}
-
-		/**
-		 * Collects cards from the player
-		 * @param player The player to collect cards from
-		 */
-		private void collectCards(PlayerPanel player){
-			ArrayList<Card> toCollect = player.clearHand();
-			for(Card c: toCollect){
-				deck.addToBottom(c);
 			}
 		}
 
-		/**
-		 * Gives a card to the player
-		 * @param player 
-		 */
-		private void giveCard(PlayerPanel player){
-			player.getHand().addCard(deck.draw());
-		}
-
-		/**
-		 * Enables and disables some buttons 
-		 * @param hitState The hit button state
-		 * @param standState The stand button state
-		 * @param doubleState The double button state
-		 * @param splitState The split button state
-		 * @param surrenderState The surrender button state
-		 */
-		private void setButtonState(boolean hitState, boolean standState,
-				boolean doubleState, boolean splitState, boolean surrenderState) {
-			if (hitState)
-				playerChoices.enableHit();
-			else
-				playerChoices.disableHit();
-
-			if (standState)
-				playerChoices.enableStand();
-			else
-				playerChoices.disableStand();
-
-			if (doubleState)
-				playerChoices.enableDouble();
-			else
-				playerChoices.disableDouble();
-
-			if (splitState)
-				playerChoices.enableSplit();
-			else
-				playerChoices.disableSplit();
-
-			if (surrenderState)
-				playerChoices.enableSurrender();
-			else
-				playerChoices.disableSurrender();
-		}
-
 		/**
 		 * Asks for bets from players
 		 */
 		private void askBets() {
-			p1.askBet(deck.getCount());
-			p2.askBet(deck.getCount());
-			p3.askBet(deck.getCount());
-			p4.askBet(deck.getCount());
+			Arrays.fill(settled, false);
+			table.askBets();
+			publishStep();
 		}     
 
 		/**
 		 * Deals out cards to players and dealer
 		 */
 		private void deal() {
-			dealerCards(dealer);
-			dealCards(p1);
-			dealCards(p2);
-			dealCards(p3);
-			dealCards(p4);
+			table.deal();
+			publishStep();
 		}                
 
 		/**
 		 * Asks for insurance bets from players
 		 */
 		public void insurance() {
-			if (dealer.checkAce()) {
-				doInsurance(p1);
-				doInsurance(p2);
-				doInsurance(p3);
-				doInsurance(p4);
-			}
-		}
-
-		/**
-		 * Asks for AI to do their turns
-		 */
-		public void doAITurns() {
-			int aiAction;
-			if (!hasHuman) {
-				do {
-					aiAction = p1.askComputerAction(dealer.getHand().get(0));
-				} while (parseAIActions(p1, aiAction) == true);
-			}
-			do {
-				aiAction = p2.askComputerAction(dealer.getHand().get(0));
-			} while (parseAIActions(p2, aiAction) == true);
-			do {
-				aiAction = p3.askComputerAction(dealer.getHand().get(0));
-			} while (parseAIActions(p3, aiAction) == true);
-			do {
-				aiAction = p4.askComputerAction(dealer.getHand().get(0));
-			} while (parseAIActions(p4, aiAction) == true);
+			table.insurance();
+			publishStep();
 		}
 
 		/**
-		 * Processes the AI's actions
-		 * @param ai The AI to parse actions for
-		 * @param action The action to do
-		 * @return true if AI can continue to play, false otherwise
+		 * Lets every player play his hands, the human through the buttons
 		 */
-		private boolean parseAIActions(PlayerPanel ai, int action) {
-			switch (action) {
-			case 0:
-				return false;
-			case 1:
-				giveCard(ai);
-				return true;
-			case 2:
-				return false; // AI never surrenders anyway
-			case 3:
-				ai.doubleDown();
-				giveCard(ai);
-				return false;
-			default:
-				return false;
-			}
+		public void doPlayerTurns() {
+			table.doPlayerTurns();
+			publishStep();
 		}
 
 		/**
 		 * Does the dealer's turn.
 		 */
 		public void doDealerTurn() {
-			dealer.flipSecond();
-			while (dealer.getHand().getBestValue() < 17) {
-				dealer.getHand().addCard(deck.draw());
-			}
+			table.doDealerTurn();
+			publishStep();
 		}
 
 		/**
-		 * Gives out the money winnings.
+		 * Gives out the money winnings. The finished round is always shown,
+		 * even when fast-forwarding.
 		 */
 		public void doPayOuts() {
-			payOut(p2);
-			payOut(p3);
-			payOut(p4);
-			payOut(p1);
+			table.doPayOuts();
+			publish();
 		}
 
 		/**
 		 * Clears the cards from the table.
 		 */
 		private void reset() {
-			collectCards(p1);
-			collectCards(p2);
-			collectCards(p3);
-			collectCards(p4);
-			collectDealerCards();  
-			turnContinue = true;
+			table.reset();
+			publishStep();
 		}
 	}
 
@@ -496,34 +356,19 @@ public class BlackjackGui {
 		}
 		
 		while (true) {
-			if (game.hasHuman && game.p1.getMoney() < MIN_BET) {
+			if (game.hasHuman && game.p1.getSeat().getMoney() < MIN_BET) {
 				JOptionPane.showMessageDialog(game, 
 						"Sorry, no money, no play.");
 				System.exit(0);
 			}
-			//System.out.println(game.deck.getCount());
+			//System.out.println(game.table.getDeck().getCount());
 			game.askBets(); 
 			game.deal();         	
-			game.repaint();
 			game.insurance();
-			if (game.hasHuman) {
-				game.setButtonState(true, true, true, false, true);
-				if (game.p1.getCurrentBet() > game.p1.getMoney()) 
-					game.playerChoices.disableDouble();
-				while (game.turnContinue) { 
-					try {
-						Thread.sleep(10);
-					} catch (InterruptedException e) {
-						e.printStackTrace();
-					}
-				}
-				game.setButtonState(false, false, false, false, false);
-			}     	
-			game.doAITurns();
+			game.doPlayerTurns();
 			game.doDealerTurn();
-			game.repaint();       
 			game.doPayOuts();
-			if (!game.hasHuman) {
+			if (!game.hasHuman && !game.fastForward) {
 				try {
 					Thread.sleep(delay);
 				} catch (InterruptedException e) {
@@ -0,0 +1,134 @@
+package gui;
+
+import java.awt.AlphaComposite;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.GraphicsEnvironment;
+import java.awt.Image;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.awt.image.ImageObserver;
+import java.io.IOException;
+import java.net.URL;
+
+import javax.imageio.ImageIO;
+
+import base.Card;
+
+/**
+ * The card images, cut out of the cards.png sheet once and shared by every
+ * panel. The sheet is decoded completely before anything is drawn, and each
+ * of the 52 faces and the card back is copied into its own image compatible
+ * with the screen, so painting a card is a plain unscaled blit.
+ *
+ * @author Vance Zuo
+ */
+// Sheet layout based on
+// http://math.hws.edu/eck/cs124/f11/lab11/cards/PokerCard.java
+public class CardSprites {
+
+	/** Pixel width of one card image */
+	public static final int CARD_WIDTH = 79;
+	/** Pixel height of one card image */
+	public static final int CARD_HEIGHT = 123;
+
+	// Row of each suit in cards.png, indexed by Card suit
+	private static final int[] SUIT_ROWS = new int[4];
+	static {
+		SUIT_ROWS[Card.CLUBS] = 0;
+		SUIT_ROWS[Card.DIAMONDS] = 1;
+		SUIT_ROWS[Card.HEARTS] = 2;
+		SUIT_ROWS[Card.SPADES] = 3;
+	}
+
+	private Image[] faces = new Image[Card.NUM_CARDS]; // by Card index
+	private Image back;
+
+	/**
+	 * Cuts the cards out of a sheet.
+	 * @param sheet the fully loaded card sheet
+	 */
+	private CardSprites(BufferedImage sheet) {
+		for (int i = 0; i < Card.NUM_CARDS; i++) {
+			Card card = Card.get(i);
+			faces[i] = cut(sheet, card.getFace(), SUIT_ROWS[card.getSuit()]);
+		}
+		back = cut(sheet, 2, 4);
+	}
+
+	/**
+	 * Loads the cards from the cards.png sheet next to this class.
+	 * @return the cards
+	 * @throws IOException if the sheet is missing or cannot be decoded
+	 */
+	public static CardSprites load() throws IOException {
+		URL url = CardSprites.class.getResource("cards.png");
+		if (url == null)
+			throw new IOException("cards.png not found");
+		BufferedImage sheet = ImageIO.read(url);
+		if (sheet == null)
+			throw new IOException("cards.png could not be decoded");
+		return new CardSprites(sheet);
+	}
+
+	/**
+	 * Copies one card out of the sheet.
+	 * @param column the card's column in the sheet
+	 * @param row the card's row in the sheet
+	 * @return the card image
+	 */
+	private static Image cut(BufferedImage sheet, int column, int row) {
+		BufferedImage image;
+		if (GraphicsEnvironment.isHeadless()) {
+			image = new BufferedImage(CARD_WIDTH, CARD_HEIGHT,
+					BufferedImage.TYPE_INT_ARGB);
+		} else {
+			GraphicsConfiguration gc = GraphicsEnvironment
+					.getLocalGraphicsEnvironment().getDefaultScreenDevice()
+					.getDefaultConfiguration();
+			image = gc.createCompatibleImage(CARD_WIDTH, CARD_HEIGHT,
+					Transparency.TRANSLUCENT);
+		}
+		Graphics2D g = image.createGraphics();
+		g.setComposite(AlphaComposite.Src); // copy, don't blend
+		int x = column * CARD_WIDTH;
+		int y = row * CARD_HEIGHT;
+		g.drawImage(sheet, 0, 0, CARD_WIDTH, CARD_HEIGHT, x, y,
+				x + CARD_WIDTH, y + CARD_HEIGHT, null);
+		g.dispose();
+		return image;
+	}
+
+	/**
+	 * Gets the image of a card's face.
+	 * @param card the card
+	 * @return the image
+	 */
+	public Image getFace(Card card) {
+		return faces[card.getIndex()];
+	}
+
+	/**
+	 * Gets the image of the card back.
+	 * @return the image
+	 */
+	public Image getBack() {
+		return back;
+	}
+
+	/**
+	 * Paints a card with its top-left corner at (x,y). A facedown card is
+	 * drawn as the card back.
+	 * @param g the graphics context
+	 * @param card the card to be drawn
+	 * @param faceUp whether the card is face up
+	 * @param x the x-position of the card
+	 * @param y the y-position of the card
+	 * @param observer the component being painted
+	 */
+	public void draw(Graphics g, Card card, boolean faceUp, int x, int y,
+			ImageObserver observer) {
+		g.drawImage(faceUp ? getFace(card) : back, x, y, observer);
+	}
+}
@@ -33,7 +33,7 @@ public class ChoicePanel extends JPanel {
 		add(hit);
 		add(stand);
 		add(dbl);
-		//		add(split); // Unimplemented
+		add(split);
 		add(surrender);
 	}
 
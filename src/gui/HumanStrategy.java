@@ -0,0 +1,223 @@
+package gui;
+
+import java.awt.Component;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import javax.swing.JOptionPane;
+import javax.swing.SwingUtilities;
+
+import base.Card;
+import base.Deck;
+import base.Hand;
+import base.Seat;
+import base.Strategy;
+
+/**
+ * The strategy of a seat played by the user. Bets and insurance are asked for
+ * with input dialogs, while hands are played through a ChoicePanel: play()
+ * enables the buttons for the allowed actions and blocks the game thread
+ * until one of them is pressed, which hands the action over through a queue.
+ *
+ * @author Vance Zuo
+ */
+public class HumanStrategy implements Strategy, ActionListener {
+
+	private Component parent;
+	private ChoicePanel choices;
+	private Runnable turnStarted;
+	private BlockingQueue<Integer> actions = new LinkedBlockingQueue<Integer>();
+
+	/**
+	 * Creates a human strategy, which listens to the buttons of a choice
+	 * panel and keeps them disabled until it is the human's turn.
+	 * @param dialogParent the component dialogs are shown over
+	 * @param choicePanel the buttons the human plays with
+	 * @param onTurn run on the game thread before the human is asked to
+	 *               play a hand, e.g. to show the table
+	 */
+	public HumanStrategy(Component dialogParent, ChoicePanel choicePanel,
+			Runnable onTurn) {
+		parent = dialogParent;
+		choices = choicePanel;
+		turnStarted = onTurn;
+		choices.addListener(this);
+		setButtons(0, false);
+	}
+
+	@Override
+	public boolean isHuman() {
+		return true;
+	}
+
+	/**
+	 * Asks the human for a bet, or sits the round out if the table is being
+	 * stopped.
+	 */
+	@Override
+	public int bet(Seat seat, Deck deck) {
+		if (Thread.currentThread().isInterrupted())
+			return 0;
+		return askHumanBet("Remember, the minimum wager is $"
+				+ seat.getMinBet() + ".\nHow much will you be betting?",
+				seat.getMinBet(), seat.getMoney());
+	}
+
+	@Override
+	public int insurance(Seat seat, Deck deck) {
+		if (Thread.currentThread().isInterrupted())
+			return 0;
+		int bet = seat.getCurrentBet();
+		String msg = "My hand's looking pretty nice. You can "
+				+ "take insurance\nagainst Blackjack for 2:1 odds, but only "
+				+ "with up to half\nyour original bet ($" + bet / 2
+				+ "). How " + "much will it be?";
+		return askHumanBet(msg, -1, Math.min(seat.getMoney(), bet / 2));
+	}
+
+	/**
+	 * Waits for the human to press one of the allowed buttons. Called on the
+	 * game thread; stands by itself on a busted hand or Blackjack.
+	 * @return the chosen action, STAND if interrupted
+	 */
+	@Override
+	public int play(Seat seat, Hand hand, Card dealerCard, int allowed) {
+		if (hand.isBusted() || hand.isBlackJack())
+			return STAND;
+		turnStarted.run();
+		actions.clear();
+		setButtons(allowed, true);
+		int action;
+		try {
+			action = actions.take();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			setButtons(0, false);
+			return STAND;
+		}
+		if (action == SURRENDER)
+			JOptionPane.showMessageDialog(parent, "Not feeling it? "
+					+ "Fine, take back $" + seat.getCurrentBet() / 2 + ".");
+		return action;
+	}
+
+	/**
+	 * Responds to button presses from the ChoicePanel, handing the chosen
+	 * action to the game thread waiting in play(). The buttons stay disabled
+	 * until it asks for the next one.
+	 * @param a The event
+	 */
+	@Override
+	public void actionPerformed(ActionEvent a) {
+		String command = a.getActionCommand();
+		int action;
+		if (command.equals("Hit")) {
+			action = HIT;
+		} else if (command.equals("Stand")) {
+			action = STAND;
+		} else if (command.equals("Double")) {
+			action = DOUBLE;
+		} else if (command.equals("Split")) {
+			action = SPLIT;
+		} else if (command.equals("Surrender")) {
+			action = SURRENDER;
+		} else {
+			return;
+		}
+		setButtonState(false, false, false, false, false);
+		actions.offer(action);
+	}
+
+	/**
+	 * Enables the buttons for the human's next action, or disables them all,
+	 * on the event thread.
+	 * @param allowed optional actions that are allowed, see Strategy
+	 * @param canPlay whether hitting and standing are allowed
+	 */
+	private void setButtons(final int allowed, final boolean canPlay) {
+		SwingUtilities.invokeLater(new Runnable() {
+			@Override
+			public void run() {
+				setButtonState(canPlay, canPlay,
+						(allowed & ALLOW_DOUBLE) != 0,
+						(allowed & ALLOW_SPLIT) != 0,
+						(allowed & ALLOW_SURRENDER) != 0);
+			}
+		});
+	}
+
+	/**
+	 * Enables and disables some buttons 
+	 * @param hitState The hit button state
+	 * @param standState The stand button state
+	 * @param doubleState The double button state
+	 * @param splitState The split button state
+	 * @param surrenderState The surrender button state
+	 */
+	private void setButtonState(boolean hitState, boolean standState,
+			boolean doubleState, boolean splitState, boolean surrenderState) {
+		if (hitState)
+			choices.enableHit();
+		else
+			choices.disableHit();
+
+		if (standState)
+			choices.enableStand();
+		else
+			choices.disableStand();
+
+		if (doubleState)
+			choices.enableDouble();
+		else
+			choices.disableDouble();
+
+		if (splitState)
+			choices.enableSplit();
+		else
+			choices.disableSplit();
+
+		if (surrenderState)
+			choices.enableSurrender();
+		else
+			choices.disableSurrender();
+	}
+
+	/**
+	 * Pops up an input dialog asking a question for amount to bet. Non-numbers
+	 * and clicking on cancel/X result in getting "kicked out", but on merely
+	 * illegal number values a new dialog asks for a correct input.
+	 * @param msg question to ask to player
+	 * @param min minimum player can bet
+	 * @param max maximum player can bet
+	 * @return
+	 */
+	private int askHumanBet(String msg, int min, int max) {
+		int hBet = 0;
+		String sBet = JOptionPane.showInputDialog(parent, msg);
+		if (sBet == null) {
+			JOptionPane.showMessageDialog(parent, "Okay, good bye then.");
+			System.exit(0);
+		}
+		try {
+			hBet = Integer.valueOf(sBet);
+			while (hBet < 0 || hBet < min || hBet > max) {
+				String errReply;
+				if (hBet < 0) {
+					errReply = "Huh? What did you say?";
+				} else if (hBet < min) {
+					errReply = "At least $" + min + " needed:";
+				} else {
+					errReply = "You can't bet that much:";
+				}
+				sBet = JOptionPane.showInputDialog(parent, errReply);
+				hBet = Integer.valueOf(sBet);
+			}
+		} catch (Exception e) {
+			JOptionPane.showMessageDialog(parent, "Come on, let's be serious.");
+			hBet = askHumanBet(msg, min, max);
+		}
+		return hBet;
+	}
+}
@@ -0,0 +1,79 @@
+package gui;
+
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.swing.Timer;
+
+/**
+ * Hands table snapshots from the game thread to the Swing event thread. The
+ * game thread publishes a snapshot whenever the table changes, which simply
+ * replaces the one before it, and a Swing timer shows the latest snapshot a
+ * fixed number of times per second. Snapshots published between two frames
+ * are skipped, so the game never waits for the GUI, and only panels whose
+ * part of the snapshot changed are repainted.
+ *
+ * @author Vance Zuo
+ */
+public class SnapshotRenderer implements ActionListener {
+
+	/** Frames shown per second */
+	public static final int FPS = 30;
+
+	private AtomicReference<TableSnapshot> latest =
+			new AtomicReference<TableSnapshot>();
+	private DealerPanel dealer;
+	private PlayerPanel[] players;
+	private Timer timer;
+
+	/**
+	 * Creates a renderer. It does nothing until started.
+	 * @param dealerPanel panel showing the dealer
+	 * @param playerPanels panels showing the seats, in dealing order
+	 */
+	public SnapshotRenderer(DealerPanel dealerPanel,
+			PlayerPanel... playerPanels) {
+		dealer = dealerPanel;
+		players = playerPanels;
+		timer = new Timer(1000 / FPS, this);
+		timer.setCoalesce(true);
+	}
+
+	/**
+	 * Starts showing frames.
+	 */
+	public void start() {
+		timer.start();
+	}
+
+	/**
+	 * Stops showing frames.
+	 */
+	public void stop() {
+		timer.stop();
+	}
+
+	/**
+	 * Makes a snapshot the next one to be shown. May be called from any
+	 * thread.
+	 * @param snapshot the snapshot
+	 */
+	public void publish(TableSnapshot snapshot) {
+		latest.set(snapshot);
+	}
+
+	/**
+	 * Shows the latest snapshot, if there is a new one. Called by the timer
+	 * on the event thread.
+	 */
+	@Override
+	public void actionPerformed(ActionEvent e) {
+		TableSnapshot snapshot = latest.getAndSet(null);
+		if (snapshot == null)
+			return;
+		dealer.show(snapshot.getDealer());
+		for (int i = 0; i < players.length; i++)
+			players[i].show(snapshot.getSeat(i));
+	}
+}
@@ -0,0 +1,170 @@
+package gui;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import base.Card;
+import base.Hand;
+import base.Seat;
+import base.TableEngine;
+
+/**
+ * An immutable copy of what the table looks like at one moment: the dealer's
+ * hand and every seat's money, bet and hands. The game thread takes snapshots
+ * and hands them to the Swing event thread, so the panels never read the
+ * engine's objects while the game is changing them.
+ *
+ * @author Vance Zuo
+ */
+public final class TableSnapshot {
+
+	private HandView dealer;
+	private SeatView[] seats;
+
+	private TableSnapshot(HandView dealerHand, SeatView[] seatViews) {
+		dealer = dealerHand;
+		seats = seatViews;
+	}
+
+	/**
+	 * Takes a snapshot of a table.
+	 * @param table the table
+	 * @param settled for each seat, whether its bet has been settled and the
+	 *                outcome should be shown
+	 * @return the snapshot
+	 */
+	public static TableSnapshot of(TableEngine table, boolean[] settled) {
+		ArrayList<Seat> players = table.getSeats();
+		SeatView[] seats = new SeatView[players.size()];
+		for (int i = 0; i < seats.length; i++)
+			seats[i] = new SeatView(players.get(i), settled[i]);
+		return new TableSnapshot(HandView.of(table.getDealerHand()), seats);
+	}
+
+	/**
+	 * Gets the dealer's hand.
+	 * @return the dealer's hand
+	 */
+	public HandView getDealer() {
+		return dealer;
+	}
+
+	/**
+	 * Gets a seat.
+	 * @param i index of the seat, in dealing order
+	 * @return the seat
+	 */
+	public SeatView getSeat(int i) {
+		return seats[i];
+	}
+
+	/**
+	 * The cards of a hand and which of them are face down.
+	 */
+	public static final class HandView {
+		/** A hand with no cards */
+		public static final HandView EMPTY = new HandView(new Card[0], 0);
+
+		private Card[] cards;
+		private int faceDown; // bit i set if card i is face down
+
+		private HandView(Card[] handCards, int faceDownCards) {
+			cards = handCards;
+			faceDown = faceDownCards;
+		}
+
+		/**
+		 * Copies a hand.
+		 * @param hand the hand, or null for no hand
+		 * @return the copy
+		 */
+		public static HandView of(Hand hand) {
+			if (hand == null || hand.length() == 0)
+				return EMPTY;
+			Card[] cards = new Card[hand.length()];
+			int faceDown = 0;
+			for (int i = 0; i < cards.length; i++) {
+				cards[i] = hand.get(i);
+				if (!hand.isFaceUp(i))
+					faceDown |= 1 << i;
+			}
+			return new HandView(cards, faceDown);
+		}
+
+		/** @return number of cards */
+		public int length() { return cards.length; }
+
+		/** @return the i-th card */
+		public Card get(int i) { return cards[i]; }
+
+		/** @return whether the i-th card is face up */
+		public boolean isFaceUp(int i) { return (faceDown & 1 << i) == 0; }
+
+		@Override
+		public boolean equals(Object o) {
+			if (!(o instanceof HandView))
+				return false;
+			HandView h = (HandView) o;
+			return faceDown == h.faceDown && Arrays.equals(cards, h.cards);
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * Arrays.hashCode(cards) + faceDown;
+		}
+	}
+
+	/**
+	 * The money, bet and hands of a seat.
+	 */
+	public static final class SeatView {
+		private int money;
+		private int bet;
+		private int outcome;
+		private boolean settled;
+		private HandView[] hands;
+
+		private SeatView(Seat seat, boolean isSettled) {
+			money = seat.getMoney();
+			bet = seat.getCurrentBet();
+			outcome = seat.getPreviousOutcome();
+			settled = isSettled;
+			hands = new HandView[Math.max(1, seat.getNumHands())];
+			for (int i = 0; i < hands.length; i++)
+				hands[i] = HandView.of(seat.getHand(i));
+		}
+
+		/** @return the seat's remaining money */
+		public int getMoney() { return money; }
+
+		/** @return the seat's current bet */
+		public int getBet() { return bet; }
+
+		/** @return WIN, PUSH or LOSS from Seat, see isSettled */
+		public int getOutcome() { return outcome; }
+
+		/** @return whether the outcome of this round is known */
+		public boolean isSettled() { return settled; }
+
+		/** @return number of hands, more than one after a split */
+		public int getNumHands() { return hands.length; }
+
+		/** @return the seat's i-th hand */
+		public HandView getHand(int i) { return hands[i]; }
+
+		@Override
+		public boolean equals(Object o) {
+			if (!(o instanceof SeatView))
+				return false;
+			SeatView s = (SeatView) o;
+			return money == s.money && bet == s.bet && outcome == s.outcome
+					&& settled == s.settled && Arrays.equals(hands, s.hands);
+		}
+
+		@Override
+		public int hashCode() {
+			return ((money * 31 + bet) * 31 + outcome) * 31
+					+ Arrays.hashCode(hands);
+		}
+	}
+}
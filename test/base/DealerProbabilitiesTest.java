@@ -0,0 +1,38 @@
+package base;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import org.junit.jupiter.api.Test;
+
+class DealerProbabilitiesTest {
+
+	/** A fresh 8-deck shoe less a ten, the dealer's visible card */
+	private static int[] freshShoe() {
+		int[] counts = new int[10];
+		for (int v = 0; v < 9; v++)
+			counts[v] = 32;
+		counts[9] = 127;
+		return counts;
+	}
+
+	@Test
+	void freshShoeIsCached() {
+		DealerProbabilities dp = new DealerProbabilities(Rules.DEFAULT);
+		double[] first = dp.getOutcomes(10, freshShoe());
+		assertEquals(1, dp.getCacheSize());
+		assertSame(first, dp.getOutcomes(10, freshShoe()));
+		assertEquals(1, dp.getCacheSize());
+	}
+
+	@Test
+	void outcomesAddUpToOne() {
+		DealerProbabilities dp = new DealerProbabilities(Rules.DEFAULT);
+		for (int upcard = 1; upcard <= 10; upcard++) {
+			double sum = 0;
+			for (double p : dp.getOutcomes(upcard, freshShoe()))
+				sum += p;
+			assertEquals(1, sum, 1e-9);
+		}
+	}
+}
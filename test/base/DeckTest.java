@@ -0,0 +1,24 @@
+package base;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class DeckTest {
+
+	@Test
+	void countsAreFiniteWhenTheShoeIsDealtOut() {
+		Deck deck = new Deck(RandomStreams.create(5), CountingSystem.values());
+		int cards = deck.getNumDecks() * Card.NUM_CARDS;
+		for (int i = 0; i < cards; i++)
+			deck.draw();
+		assertEquals(0, deck.getCount());
+		assertEquals(0, deck.getTrueCount());
+		for (CountingSystem system : CountingSystem.values())
+			assertTrue(Double.isFinite(deck.getTrueCount(system)), system
+					.toString());
+		for (int v = 1; v <= 10; v++)
+			assertEquals(0, deck.getDensity(v));
+	}
+}
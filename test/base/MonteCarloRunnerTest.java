@@ -0,0 +1,37 @@
+package base;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+class MonteCarloRunnerTest {
+
+	@Test
+	void roundsSatOutAreLeftOutLikeInTheSeatsStats() {
+		SplittableRandom random = new SplittableRandom(7);
+		TableEngine table = new TableEngine(new Deck(random.split()), 10);
+		Seat seat = new Seat("Counter", new ComputerStrategy(
+				ComputerStrategy.HARD_BET | ComputerStrategy.HARD_PLAY,
+				random.split(), Rules.DEFAULT,
+				BetRamp.DEFAULT.withWongOut(-1)), 1000000000, 10);
+		table.addSeat(seat);
+		MonteCarloRunner.ProfileResult result =
+				new MonteCarloRunner.ProfileResult("Counter");
+		int rounds = 20000;
+		for (int r = 0; r < rounds; r++) {
+			int moneyBefore = seat.getMoney();
+			table.playRound();
+			result.add(seat, moneyBefore);
+		}
+		BankrollStats stats = seat.getStats();
+		assertTrue(result.getRounds() < rounds, "never sat out");
+		assertEquals(stats.getRounds(), result.getRounds());
+		assertEquals(stats.getTotal(), result.getStats().getTotal());
+		assertEquals(stats.getWagered(), result.getStats().getWagered());
+		assertEquals(stats.getVariance(), result.getStats().getVariance(),
+				1e-9 * stats.getVariance());
+	}
+}
@@ -0,0 +1,66 @@
+package base;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class RoundLogTest {
+
+	@TempDir
+	Path dir;
+
+	/**
+	 * Plays some rounds with two seats, recording them.
+	 * @return the number of records written
+	 */
+	private long record(Path file, int rounds, long seed) throws IOException {
+		SplittableRandom random = new SplittableRandom(seed);
+		TableEngine table = new TableEngine(new Deck(random.split()), 10);
+		for (int s = 0; s < 2; s++)
+			table.addSeat(new Seat("AI " + s, new ComputerStrategy(
+					ComputerStrategy.HARD_PLAY, random.split()), 100000, 10));
+		RoundLog log = new RoundLog(file);
+		long before = log.getCount();
+		table.addListener(log);
+		table.playRounds(rounds);
+		log.close();
+		return log.getCount() - before;
+	}
+
+	@Test
+	void closeCutsTheFileToItsRecords() throws IOException {
+		Path file = dir.resolve("rounds.bjlog");
+		long written = record(file, 1000, 1);
+		written += record(file, 500, 2);
+		assertEquals(RoundLog.HEADER_SIZE + written * RoundLog.RECORD_SIZE,
+				Files.size(file));
+		// records read, and cards past the end that were refused
+		final long[] read = new long[2];
+		RoundLogReader reader = new RoundLogReader(file);
+		try {
+			assertEquals(written, reader.getCount());
+			reader.forEach(new RoundLogReader.RecordVisitor() {
+				@Override
+				public void visit(RoundRecord record) {
+					read[0]++;
+					record.getDealerCard(record.getNumDealerCards() - 1);
+					try {
+						record.getDealerCard(record.getNumDealerCards());
+					} catch (IndexOutOfBoundsException e) {
+						read[1]++;
+					}
+				}
+			});
+		} finally {
+			reader.close();
+		}
+		assertEquals(written, read[0]);
+		assertEquals(written, read[1]);
+	}
+}
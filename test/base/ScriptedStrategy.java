@@ -0,0 +1,51 @@
+package base;
+
+/**
+ * A strategy for tests, which bets a fixed amount, never insures and answers
+ * each request for an action with the next action of a script, standing
+ * once the script is used up. It counts the times it is asked.
+ */
+class ScriptedStrategy implements Strategy {
+
+	private int betAmount;
+	private int[] script;
+	private int next;
+
+	/**
+	 * Creates a strategy.
+	 * @param bet the amount to bet every round
+	 * @param actions the actions to answer with, in order
+	 */
+	ScriptedStrategy(int bet, int... actions) {
+		betAmount = bet;
+		script = actions;
+	}
+
+	/**
+	 * Gets the number of times an action was asked for.
+	 * @return the number of decisions
+	 */
+	int getDecisions() {
+		return next;
+	}
+
+	@Override
+	public int bet(Seat seat, Deck deck) {
+		return betAmount;
+	}
+
+	@Override
+	public int insurance(Seat seat, Deck deck) {
+		return 0;
+	}
+
+	@Override
+	public int play(Seat seat, Hand hand, Card dealerCard, int allowed) {
+		return next < script.length ? script[next++] : STAND;
+	}
+
+	@Override
+	public boolean isHuman() {
+		return false;
+	}
+}
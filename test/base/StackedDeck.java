@@ -0,0 +1,45 @@
+package base;
+
+import java.util.ArrayDeque;
+
+/**
+ * A deck that deals given cards in order, for tests. It runs out instead of
+ * reshuffling, so a test fails if the engine draws more than expected.
+ */
+class StackedDeck extends Deck {
+
+	private ArrayDeque<Card> cards = new ArrayDeque<Card>();
+
+	/**
+	 * Creates a deck dealing cards of the given faces, in order.
+	 * @param faces faces of the cards, e.g. Card.ACE
+	 */
+	StackedDeck(int... faces) {
+		super(RandomStreams.create(1));
+		for (int face : faces)
+			cards.add(Card.get(Card.SPADES, face));
+	}
+
+	@Override
+	public Card draw() {
+		if (cards.isEmpty())
+			throw new IllegalStateException("Deck is empty");
+		return cards.poll();
+	}
+
+	@Override
+	public void addToBottom(Card c) {
+	}
+
+	@Override
+	public void endRound() {
+	}
+
+	/**
+	 * Gets the number of cards not dealt yet.
+	 * @return the cards left
+	 */
+	int left() {
+		return cards.size();
+	}
+}
@@ -0,0 +1,140 @@
+package base;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import org.junit.jupiter.api.Test;
+
+class TableEngineTest {
+
+	private static final int MONEY = 1000;
+	private static final int BET = 100;
+
+	private StackedDeck deck;
+	private TableEngine table;
+	private Seat seat;
+	private ScriptedStrategy strategy;
+	private int bet = BET;
+
+	/**
+	 * Seats one scripted player at a table dealing the given cards, the
+	 * dealer's two first and then the player's.
+	 */
+	private void setUp(Rules rules, int[] faces, int... actions) {
+		deck = new StackedDeck(faces);
+		table = new TableEngine(deck, rules.withBetLimits(BET, BET));
+		strategy = new ScriptedStrategy(bet, actions);
+		seat = new Seat("Test", strategy, MONEY, BET);
+		table.addSeat(seat);
+	}
+
+	private void playToDealer() {
+		table.askBets();
+		table.deal();
+		table.insurance();
+		table.doPlayerTurns();
+	}
+
+	@Test
+	void splitAcesGetOneCardEach() {
+		setUp(Rules.DEFAULT, new int[] { Card.SIX, Card.TEN, Card.ACE,
+				Card.ACE, Card.FIVE, Card.SEVEN, Card.TEN },
+				Strategy.SPLIT, Strategy.HIT, Strategy.HIT, Strategy.DOUBLE);
+		playToDealer();
+		assertEquals(2, seat.getNumHands());
+		assertEquals(2, seat.getHand(0).length());
+		assertEquals(2, seat.getHand(1).length());
+		assertEquals(1, strategy.getDecisions());
+		table.doDealerTurn();
+		assertEquals(0, deck.left());
+	}
+
+	@Test
+	void splitAcesMayBeHitIfTheRulesSaySo() {
+		setUp(Rules.DEFAULT.withHitSplitAces(true), new int[] { Card.SIX,
+				Card.TEN, Card.ACE, Card.ACE, Card.FIVE, Card.TWO,
+				Card.SEVEN, Card.TEN }, Strategy.SPLIT, Strategy.HIT);
+		playToDealer();
+		assertEquals(3, seat.getHand(0).length());
+		assertEquals(2, seat.getHand(1).length());
+	}
+
+	@Test
+	void handEndsWhenBusted() {
+		setUp(Rules.DEFAULT, new int[] { Card.SIX, Card.TEN, Card.TEN,
+				Card.SIX, Card.TEN, Card.TEN }, Strategy.HIT, Strategy.HIT,
+				Strategy.HIT, Strategy.HIT);
+		table.playRound();
+		assertEquals(1, strategy.getDecisions());
+		assertEquals(MONEY - BET, seat.getMoney());
+		assertEquals(0, deck.left());
+	}
+
+	@Test
+	void handEndsAt21() {
+		setUp(Rules.DEFAULT, new int[] { Card.SIX, Card.TEN, Card.TEN,
+				Card.SIX, Card.FIVE, Card.TEN }, Strategy.HIT, Strategy.HIT);
+		table.playRound();
+		assertEquals(1, strategy.getDecisions());
+		assertEquals(MONEY + BET, seat.getMoney());
+	}
+
+	@Test
+	void roundSatOutIsNotRecorded() {
+		bet = 0;
+		setUp(Rules.DEFAULT, new int[] { Card.SIX, Card.TEN, Card.TEN });
+		table.playRound();
+		assertEquals(0, seat.getNumHands());
+		assertEquals(MONEY, seat.getMoney());
+		assertEquals(0, seat.getStats().getRounds());
+		assertEquals(0, deck.left());
+	}
+
+	@Test
+	void doubleOnThreeCardsStands() {
+		setUp(Rules.DEFAULT, new int[] { Card.SIX, Card.TEN, Card.FIVE,
+				Card.THREE, Card.TWO, Card.TEN }, Strategy.HIT,
+				Strategy.DOUBLE);
+		playToDealer();
+		assertEquals(3, seat.getHand(0).length());
+		assertEquals(BET, seat.getBet(0));
+		assertEquals(MONEY - BET, seat.getMoney());
+	}
+
+	@Test
+	void surrenderAfterSplitStands() {
+		setUp(Rules.DEFAULT, new int[] { Card.SIX, Card.TEN, Card.EIGHT,
+				Card.EIGHT, Card.TEN, Card.TEN, Card.TEN }, Strategy.SPLIT,
+				Strategy.SURRENDER, Strategy.SURRENDER);
+		playToDealer();
+		assertEquals(2, seat.getHand(0).length());
+		assertEquals(2, seat.getHand(1).length());
+		assertEquals(MONEY - 2 * BET, seat.getMoney());
+	}
+
+	@Test
+	void surrenderRefundsHalfOfOneHand() {
+		setUp(Rules.DEFAULT, new int[] { Card.SIX, Card.TEN, Card.EIGHT,
+				Card.EIGHT, Card.TEN });
+		table.askBets();
+		table.deal();
+		table.split(seat, 0);
+		table.surrender(seat, 1);
+		assertEquals(MONEY - 2 * BET + BET / 2, seat.getMoney());
+		assertEquals(2, seat.getHand(0).length());
+		assertEquals(0, seat.getHand(1).length());
+	}
+
+	@Test
+	void defaultStrategyDoesNotSurrenderSmallTotalsToAnAce() {
+		BasicStrategy strategy = BasicStrategy.generate(Rules.DEFAULT);
+		Card ace = Card.get(Card.HEARTS, Card.ACE);
+		int allowed = Strategy.ALLOW_DOUBLE | Strategy.ALLOW_SURRENDER;
+		for (int face = Card.TWO; face <= Card.FIVE; face++) {
+			Hand hand = new Hand(Card.get(Card.CLUBS, Card.THREE),
+					Card.get(Card.CLUBS, face));
+			assertNotEquals(Strategy.SURRENDER,
+					strategy.getAction(hand, ace, allowed), hand.toString());
+		}
+	}
+}
@@ -0,0 +1,26 @@
+package base;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+class TableMetricsTest {
+
+	@Test
+	void detachAddsUnflushedRounds() {
+		TableEngine table = new TableEngine(new Deck(RandomStreams.create(3)),
+				25);
+		table.addSeat(new Seat("AI", new ComputerStrategy(
+				ComputerStrategy.HARD_BET | ComputerStrategy.HARD_PLAY,
+				RandomStreams.create(4)), 1000000, 25));
+		TableMetrics metrics = new TableMetrics();
+		metrics.attach(table);
+		int rounds = TableMetrics.FLUSH_ROUNDS + 10;
+		table.playRounds(rounds);
+		metrics.detach(table);
+		assertEquals(rounds, metrics.getRounds());
+		assertEquals(table.getDeck().getCardsDrawn(), metrics.getCardsDrawn());
+		table.playRounds(1); // no longer counted
+		assertEquals(rounds, metrics.getRounds());
+	}
+}
@@ -0,0 +1,60 @@
+package base;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+class TableSchedulerTest {
+
+	@Test
+	@Timeout(value = 30, unit = TimeUnit.SECONDS)
+	void stopInterruptsATableWaitingForAHuman() throws InterruptedException {
+		final CountDownLatch waiting = new CountDownLatch(1);
+		final BlockingQueue<Integer> clicks =
+				new LinkedBlockingQueue<Integer>();
+		// Plays like HumanStrategy: blocks until a click that never comes
+		Strategy human = new Strategy() {
+			@Override
+			public int bet(Seat seat, Deck deck) {
+				return Thread.currentThread().isInterrupted() ? 0
+						: seat.getMinBet();
+			}
+
+			@Override
+			public int insurance(Seat seat, Deck deck) {
+				return 0;
+			}
+
+			@Override
+			public int play(Seat seat, Hand hand, Card dealerCard,
+					int allowed) {
+				waiting.countDown();
+				try {
+					return clicks.take();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					return STAND;
+				}
+			}
+
+			@Override
+			public boolean isHuman() {
+				return true;
+			}
+		};
+		TableEngine table = new TableEngine(new Deck(), 10);
+		table.addSeat(new Seat("Human", human, 1000, 10));
+		TableScheduler scheduler = new TableScheduler();
+		scheduler.addTable(table);
+		scheduler.start();
+		assertTrue(waiting.await(10, TimeUnit.SECONDS));
+		assertTrue(scheduler.stop());
+		scheduler.getTotalRounds();
+	}
+}